@@ -0,0 +1,113 @@
+package net.garrapeta.box2ddemo.benchmark;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.ContactFilter;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.World;
+
+/**
+ * Measures the broadphase pair throughput of a world full of circles, filtering the pairs
+ * in native code (World.setNativeContactFilter()) and in Java (a ContactFilter that does
+ * the same than the default one). The Java filter runs with the fixtures found by address,
+ * and by index (World.setIndexLookup()).
+ * 
+ * Runs on a plain JVM, with a desktop build of the gdx native library, built from the
+ * sources of this project, in java.library.path:
+ * java -Djava.library.path=... net.garrapeta.box2ddemo.benchmark.ContactFilterBenchmark [bodies] [steps]
+ */
+public class ContactFilterBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int bodies = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+        System.loadLibrary("gdx");
+
+        System.out.println("Bodies: " + bodies + ", steps: " + steps);
+        for (int round = 0; round < ROUNDS; round++) {
+            report("native filter         ", run(null, false, bodies, steps), steps);
+            report("Java filter           ", run(new JavaDefaultFilter(), false, bodies, steps), steps);
+            report("Java filter, by index ", run(new JavaDefaultFilter(), true, bodies, steps), steps);
+        }
+    }
+
+    private static void report(String name, long[] result, int steps) {
+        long elapsed = result[0];
+        long pairs = result[1];
+        System.out.println(name + ": " + (elapsed / 1000000) + " ms, " + (pairs * 1000000000L / elapsed) + " pairs/s, "
+                + (pairs / steps) + " pairs/step");
+    }
+
+    /**
+     * Steps a world of circles falling into a box
+     * @return time elapsed stepping, in ns, and number of contact pairs, summed over all the steps
+     */
+    private static long[] run(ContactFilter filter, boolean indexLookup, int bodyCount, int steps) {
+        World world = new World(new Vector2(0, -9.8f), true);
+        world.setContactFilter(filter);
+        world.setNativeContactFilter(filter == null);
+        world.setIndexLookup(indexLookup);
+
+        float size = (float) Math.sqrt(bodyCount) * 1.2f;
+        createBox(world, size);
+
+        // Same seed for every run, so they simulate the same
+        MathUtils.random.setSeed(0);
+        CircleShape circle = new CircleShape();
+        circle.setRadius(0.5f);
+        BodyDef def = new BodyDef();
+        def.type = BodyType.DynamicBody;
+        for (int i = 0; i < bodyCount; i++) {
+            def.position.set(MathUtils.random(1, size - 1), MathUtils.random(1, size * 2));
+            Body body = world.createBody(def);
+            body.createFixture(circle, 1);
+        }
+        circle.dispose();
+
+        long pairs = 0;
+        long init = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            world.step(1 / 60f, 2, 1);
+            pairs += world.getContactCount();
+        }
+        long elapsed = System.nanoTime() - init;
+
+        world.dispose();
+        return new long[] { elapsed, pairs };
+    }
+
+    private static void createBox(World world, float size) {
+        ChainShape chain = new ChainShape();
+        chain.createLoop(new Vector2[] { new Vector2(0, 0), new Vector2(0, size * 3), new Vector2(size, size * 3),
+                new Vector2(size, 0) });
+        world.createBody(new BodyDef()).createFixture(chain, 0);
+        chain.dispose();
+    }
+
+    /**
+     * What World did in Java for every pair when there was no ContactFilter
+     */
+    private static class JavaDefaultFilter implements ContactFilter {
+
+        @Override
+        public boolean shouldCollide(Fixture fixtureA, Fixture fixtureB) {
+            Filter filterA = fixtureA.getFilterData();
+            Filter filterB = fixtureB.getFilterData();
+
+            if (filterA.groupIndex == filterB.groupIndex && filterA.groupIndex != 0) {
+                return filterA.groupIndex > 0;
+            }
+
+            return (filterA.maskBits & filterB.categoryBits) != 0 && (filterA.categoryBits & filterB.maskBits) != 0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package net.garrapeta.box2ddemo.benchmark;
+
+import net.garrapeta.box2ddemo.gameengine.ActorPool;
+import net.garrapeta.box2ddemo.gameengine.GameWorld;
+import net.garrapeta.box2ddemo.gameengine.PointsConversionUtils;
+import net.garrapeta.box2ddemo.gameengine.actor.SimpleCircumferenceActor;
+import net.garrapeta.box2ddemo.gameengine.actor.SimpleLoopActor;
+import net.garrapeta.box2ddemo.gameengine.render.HeadlessSurface;
+import net.garrapeta.box2ddemo.gameengine.render.RecordingRenderer;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Runs a GameWorld without Android: a box full of falling circles, drawn with a
+ * RecordingRenderer through a HeadlessSurface, with the frames advanced from the main
+ * thread. Once with the world drawn in the game loop, and once with decoupled rendering.
+ *
+ * Fails (exit status 1) if the circles are not drawn, so it can be run as a check.
+ *
+ * Runs on a plain JVM, with no Android classes, and with a desktop build of the gdx native
+ * library in java.library.path:
+ * java -Djava.library.path=... net.garrapeta.box2ddemo.benchmark.HeadlessRun [circles] [frames]
+ */
+public class HeadlessRun {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+
+    /** Milliseconds of each frame */
+    private static final float FRAME_TIME = 1000 / 30f;
+
+    public static void main(String[] args) {
+        int circles = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+        GameWorld.loadGdxLibrary();
+
+        System.out.println("Circles: " + circles + ", frames: " + frames);
+        boolean ok = run(false, circles, frames);
+        ok &= run(true, circles, frames);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return if the last frame drew, or culled, all the circles
+     */
+    private static boolean run(boolean decoupled, int circles, int frames) {
+        RecordingRenderer renderer = new RecordingRenderer(WIDTH, HEIGHT);
+        BoxWorld world = new BoxWorld(new HeadlessSurface(renderer), circles);
+        world.setDecoupledRendering(decoupled);
+        world.init(WIDTH, HEIGHT);
+
+        long init = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            renderer.reset();
+            world.advanceFrame(FRAME_TIME);
+        }
+        long elapsed = System.nanoTime() - init;
+
+        // The circles. The walls are static, so they are drawn in the static layer
+        int drawn = world.getDrawnActorCount();
+        int culled = world.getCulledActorCount();
+        System.out.println((decoupled ? "decoupled: " : "coupled:   ") + (elapsed / 1000000) + " ms, "
+                + (frames * 1000000000L / elapsed) + " frames/s, drawn: " + drawn + ", culled: " + culled
+                + ", last frame: " + renderer);
+
+        world.getShapeCache().dispose();
+        world.getBox2dWorld().dispose();
+        if (drawn + culled < circles) {
+            System.err.println("Expected " + circles + " circles, got " + (drawn + culled));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Box with circles falling into it
+     */
+    private static class BoxWorld extends GameWorld {
+
+        private static final float WORLD_HEIGHT = 15;
+        private static final float CIRCLE_RADIUS = 0.5f;
+
+        private final int mCircles;
+
+        private final ActorPool<SimpleCircumferenceActor> mCirclePool = new ActorPool<SimpleCircumferenceActor>() {
+            @Override
+            protected SimpleCircumferenceActor newActor() {
+                return new SimpleCircumferenceActor(BoxWorld.this, Vector2.Zero, true, CIRCLE_RADIUS);
+            }
+        };
+
+        BoxWorld(HeadlessSurface surface, int circles) {
+            super(surface);
+            mCircles = circles;
+        }
+
+        @Override
+        public void init(int screenWidth, int screenHeight) {
+            float pixelsInMeter = screenHeight / WORLD_HEIGHT;
+            float worldWidth = screenWidth / pixelsInMeter;
+            PointsConversionUtils.getInstance().init(pixelsInMeter, worldWidth, WORLD_HEIGHT);
+            setGravity(0, -9.8f);
+
+            float m = 0.5f;
+            Vector2[] vertex = new Vector2[] {
+                    new Vector2(m, m),
+                    new Vector2(m, WORLD_HEIGHT - m),
+                    new Vector2(worldWidth - m, WORLD_HEIGHT - m),
+                    new Vector2(worldWidth - m, m)
+                };
+            addActor(new SimpleLoopActor(this, new Vector2(0, 0), false, vertex));
+
+            // Same seed for every run, so they simulate the same
+            MathUtils.random.setSeed(0);
+            float margin = m + CIRCLE_RADIUS;
+            for (int i = 0; i < mCircles; i++) {
+                spawnActor(mCirclePool, MathUtils.random(margin, worldWidth - margin),
+                        MathUtils.random(margin, WORLD_HEIGHT - margin), 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package net.garrapeta.box2ddemo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.garrapeta.box2ddemo.gameengine.GameMessage;
+import net.garrapeta.box2ddemo.gameengine.GameMessageQueue;
+import net.garrapeta.box2ddemo.gameengine.GameWorld;
+
+/**
+ * Compares the lock-free GameMessageQueue with the synchronized, sorted ArrayList
+ * GameWorld used before, with several threads posting at the same time while one
+ * thread processes the messages, like the game loop does.
+ * 
+ * Runs on a plain JVM: java net.garrapeta.box2ddemo.benchmark.MessageQueueBenchmark [producers] [messagesPerProducer]
+ */
+public class MessageQueueBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+        System.out.println("Producers: " + producers + ", messages per producer: " + messages);
+        for (int round = 0; round < ROUNDS; round++) {
+            long locked = run(new LockedQueue(), producers, messages);
+            long lockFree = run(new LockFreeQueue(), producers, messages);
+            System.out.println("Round " + round + ": synchronized list " + (locked / 1000000) + " ms, lock-free "
+                    + (lockFree / 1000000) + " ms");
+        }
+    }
+
+    /**
+     * Runs the producers and the consumer until all the messages have been processed
+     * @return time elapsed, in ns
+     */
+    private static long run(final Queue queue, int producers, final int messages) throws InterruptedException {
+        final AtomicLong processed = new AtomicLong();
+        final long total = (long) producers * messages;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int p = 0; p < producers; p++) {
+            final int priority = p % 2 == 0 ? 0 : -1;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (int i = 0; i < messages; i++) {
+                        queue.post(new CountingMessage(priority, processed));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        long init = System.nanoTime();
+        start.countDown();
+        while (processed.get() < total) {
+            queue.processAll();
+        }
+        long elapsed = System.nanoTime() - init;
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return elapsed;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class CountingMessage extends GameMessage {
+
+        private final AtomicLong mProcessed;
+
+        /** Copy of the priority, since GameMessage.getPriority() is not visible from here */
+        private final int mBenchmarkPriority;
+
+        CountingMessage(int priority, AtomicLong processed) {
+            super(priority);
+            mProcessed = processed;
+            mBenchmarkPriority = priority;
+        }
+
+        @Override
+        public void process(GameWorld world) {
+            mProcessed.lazySet(mProcessed.get() + 1);
+        }
+    }
+
+    private interface Queue {
+        void post(GameMessage message);
+        void processAll();
+    }
+
+    private static class LockFreeQueue implements Queue {
+
+        private final GameMessageQueue mQueue = new GameMessageQueue();
+
+        @Override
+        public void post(GameMessage message) {
+            mQueue.post(message);
+        }
+
+        @Override
+        public void processAll() {
+            mQueue.processAll(null);
+        }
+    }
+
+    /**
+     * What GameWorld did before GameMessageQueue
+     */
+    private static class LockedQueue implements Queue {
+
+        private final List<GameMessage> mMessages = new ArrayList<GameMessage>();
+
+        @Override
+        public void post(GameMessage message) {
+            int priority = ((CountingMessage) message).mBenchmarkPriority;
+            synchronized (mMessages) {
+                int index = 0;
+                for (GameMessage aux : mMessages) {
+                    if (((CountingMessage) aux).mBenchmarkPriority > priority) {
+                        break;
+                    }
+                    index++;
+                }
+                mMessages.add(index, message);
+            }
+        }
+
+        @Override
+        public void processAll() {
+            GameMessage[] messages;
+            synchronized (mMessages) {
+                messages = new GameMessage[mMessages.size()];
+                mMessages.toArray(messages);
+                mMessages.clear();
+            }
+            for (GameMessage message : messages) {
+                message.process(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Sort;
+
+/**
+ * Array and Sort (ComparableTimSort and TimSort) with as many elements as actors we have.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArraySortJmh {
+
+    @Param({ "100", "1000", "5000" })
+    public int size;
+
+    Item[] items;
+    Array<Item> array;
+
+    private static final Comparator<Item> BY_KEY = new Comparator<Item>() {
+        @Override
+        public int compare(Item a, Item b) {
+            return a.mKey < b.mKey ? -1 : (a.mKey > b.mKey ? 1 : 0);
+        }
+    };
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        items = new Item[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = new Item(random.nextInt(size));
+        }
+        array = new Array<Item>(false, size);
+    }
+
+    /** The array to sort starts unsorted in every invocation */
+    @Setup(Level.Invocation)
+    public void shuffle() {
+        array.clear();
+        array.addAll(items);
+    }
+
+    @Benchmark
+    public Array<Item> sortComparable() {
+        Sort.instance().sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public Array<Item> sortComparator() {
+        Sort.instance().sort(array, BY_KEY);
+        return array;
+    }
+
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for (int i = 0; i < array.size; i++) {
+            sum += array.get(i).mKey;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int iterateForEach() {
+        int sum = 0;
+        for (Item item : array) {
+            sum += item.mKey;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Array<Item> addAndRemove() {
+        // Unordered removal, the way actors would be removed
+        for (int i = 0; i < 16; i++) {
+            array.removeIndex(0);
+        }
+        for (int i = 0; i < 16; i++) {
+            array.add(items[i]);
+        }
+        return array;
+    }
+
+    static class Item implements Comparable<Item> {
+
+        final int mKey;
+
+        Item(int key) {
+            mKey = key;
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            return mKey < other.mKey ? -1 : (mKey > other.mKey ? 1 : 0);
+        }
+    }
+}
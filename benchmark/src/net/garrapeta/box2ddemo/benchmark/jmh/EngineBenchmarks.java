@@ -0,0 +1,26 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the engine hot paths, always with the GC profiler, so
+ * every result comes with its allocation rate (gc.alloc.rate.norm, bytes per operation).
+ * A change that makes a zero-allocation path allocate shows up there before release.
+ * 
+ * java net.garrapeta.box2ddemo.benchmark.jmh.EngineBenchmarks [regexp of the benchmarks to run]
+ */
+public class EngineBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : EngineBenchmarks.class.getPackage().getName() + ".*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
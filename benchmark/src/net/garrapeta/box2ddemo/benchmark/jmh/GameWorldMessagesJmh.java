@@ -0,0 +1,87 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import net.garrapeta.box2ddemo.gameengine.GameMessage;
+import net.garrapeta.box2ddemo.gameengine.GameWorld;
+import net.garrapeta.box2ddemo.gameengine.PointsConversionUtils;
+import net.garrapeta.box2ddemo.gameengine.render.HeadlessRenderer;
+import net.garrapeta.box2ddemo.gameengine.render.HeadlessSurface;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of posting messages with GameWorld.post() and processing them in a frame of
+ * an empty world, that goes through GameWorld.processMessages() and its scheduler.
+ * With 0 messages per frame it measures the frame alone, to be subtracted from the rest.
+ *
+ * The world creates a Box2d world, so it needs a desktop build of the gdx native library
+ * in java.library.path, passed to the forked JVM with -jvmArgs -Djava.library.path=...
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameWorldMessagesJmh {
+
+    @Param({ "0", "1", "16", "256" })
+    public int messagesPerFrame;
+
+    GameWorld world;
+    GameMessage[] messages;
+
+    @Setup
+    public void setup() {
+        GameWorld.loadGdxLibrary();
+        world = new EmptyWorld();
+        world.init(480, 800);
+        messages = new GameMessage[messagesPerFrame];
+        for (int i = 0; i < messagesPerFrame; i++) {
+            messages[i] = new MessageQueueJmh.NopMessage(0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        world.getShapeCache().dispose();
+        world.getBox2dWorld().dispose();
+    }
+
+    @Benchmark
+    public GameWorld postAndProcess() {
+        GameMessage[] messages = this.messages;
+        for (int i = 0; i < messages.length; i++) {
+            world.post(messages[i]);
+        }
+        world.advanceFrame(0);
+        return world;
+    }
+
+    /**
+     * World with nothing in it, drawn nowhere
+     */
+    static class EmptyWorld extends GameWorld {
+
+        EmptyWorld() {
+            super(new HeadlessSurface(new HeadlessRenderer(480, 800)));
+        }
+
+        @Override
+        public void init(int screenWidth, int screenHeight) {
+            PointsConversionUtils.getInstance().init(screenHeight / 15f, screenWidth / (screenHeight / 15f), 15);
+        }
+    }
+}
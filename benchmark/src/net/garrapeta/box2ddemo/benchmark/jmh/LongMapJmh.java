@@ -0,0 +1,73 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * LongMap with keys like the native addresses World uses to find bodies and fixtures:
+ * big numbers, aligned, and close to each other.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LongMapJmh {
+
+    /** Typical start of the native heap, and the size of a b2Body allocation */
+    private static final long BASE_ADDRESS = 0x7f3a2c000000L;
+    private static final long STRIDE = 160;
+
+    @Param({ "100", "2000" })
+    public int size;
+
+    long[] keys;
+    LongMap<Object> map;
+    int next;
+
+    @Setup
+    public void setup() {
+        keys = new long[size];
+        map = new LongMap<Object>(100);
+        for (int i = 0; i < size; i++) {
+            keys[i] = BASE_ADDRESS + i * STRIDE;
+            map.put(keys[i], new Object());
+        }
+    }
+
+    @Benchmark
+    public Object get() {
+        next = next + 1 == size ? 0 : next + 1;
+        return map.get(keys[next]);
+    }
+
+    @Benchmark
+    public Object put() {
+        next = next + 1 == size ? 0 : next + 1;
+        // Replaces an existing entry, so the map does not grow
+        return map.put(keys[next], keys);
+    }
+
+    @Benchmark
+    public LongMap<Object> fill() {
+        LongMap<Object> filled = new LongMap<Object>(100);
+        for (int i = 0; i < size; i++) {
+            filled.put(keys[i], keys);
+        }
+        return filled;
+    }
+}
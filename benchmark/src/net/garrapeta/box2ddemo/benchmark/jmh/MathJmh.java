@@ -0,0 +1,61 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * The lookup table based MathUtils against java.lang.Math
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MathJmh {
+
+    float angle = 1.2345f;
+    float x = 0.75f;
+    float y = -2.5f;
+
+    @Benchmark
+    public float mathUtilsSin() {
+        return MathUtils.sin(angle);
+    }
+
+    @Benchmark
+    public double mathSin() {
+        return Math.sin(angle);
+    }
+
+    @Benchmark
+    public float mathUtilsCos() {
+        return MathUtils.cos(angle);
+    }
+
+    @Benchmark
+    public double mathCos() {
+        return Math.cos(angle);
+    }
+
+    @Benchmark
+    public float mathUtilsAtan2() {
+        return MathUtils.atan2(y, x);
+    }
+
+    @Benchmark
+    public double mathAtan2() {
+        return Math.atan2(y, x);
+    }
+}
@@ -0,0 +1,145 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import net.garrapeta.box2ddemo.gameengine.GameMessage;
+import net.garrapeta.box2ddemo.gameengine.GameMessageQueue;
+import net.garrapeta.box2ddemo.gameengine.GameWorld;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of posting and processing messages in GameMessageQueue alone, the way
+ * GameWorld.post() and GameWorld.processMessages() use it.
+ * GameWorldMessagesJmh measures the same through a GameWorld.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageQueueJmh {
+
+    /**
+     * Messages posted and processed by one thread, a frame worth of them at a time
+     */
+    @State(Scope.Thread)
+    public static class SingleThread {
+
+        @Param({ "1", "16", "256" })
+        public int messagesPerFrame;
+
+        GameMessageQueue queue;
+        GameMessage[] messages;
+
+        @Setup
+        public void setup() {
+            queue = new GameMessageQueue();
+            messages = new GameMessage[messagesPerFrame];
+            for (int i = 0; i < messagesPerFrame; i++) {
+                messages[i] = new NopMessage(i % 3 == 0 ? -1 : 0);
+            }
+        }
+    }
+
+    @Benchmark
+    public int postAndProcess(SingleThread state) {
+        GameMessage[] messages = state.messages;
+        for (int i = 0; i < messages.length; i++) {
+            state.queue.post(messages[i]);
+        }
+        return state.queue.processAll(null);
+    }
+
+    /**
+     * Queue shared by the posting threads and the processing one
+     */
+    @State(Scope.Group)
+    public static class Shared {
+        GameMessageQueue queue = new GameMessageQueue();
+    }
+
+    /**
+     * Messages of one posting thread, reused once processed
+     */
+    @State(Scope.Thread)
+    public static class Producer {
+
+        /** Power of two, so the next message is found with a mask */
+        private static final int MESSAGES = 1024;
+
+        TrackedMessage[] messages;
+        int next;
+
+        @Setup
+        public void setup() {
+            messages = new TrackedMessage[MESSAGES];
+            for (int i = 0; i < MESSAGES; i++) {
+                messages[i] = new TrackedMessage();
+            }
+        }
+    }
+
+    /**
+     * Posts the next message of the thread, unless it is still pending: a message cannot be
+     * posted again until it is processed. Then the processing thread is behind, and nothing
+     * is posted.
+     * @return if the message was posted
+     */
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public boolean post(Shared shared, Producer producer) {
+        TrackedMessage message = producer.messages[producer.next];
+        if (message.mPending) {
+            return false;
+        }
+        message.mPending = true;
+        shared.queue.post(message);
+        producer.next = (producer.next + 1) & (Producer.MESSAGES - 1);
+        return true;
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public int process(Shared shared) {
+        return shared.queue.processAll(null);
+    }
+
+    static class NopMessage extends GameMessage {
+
+        NopMessage(int priority) {
+            super(priority);
+        }
+
+        @Override
+        public void process(GameWorld world) {
+        }
+    }
+
+    /**
+     * Message that tells its producer when it can be posted again
+     */
+    static class TrackedMessage extends GameMessage {
+
+        volatile boolean mPending;
+
+        @Override
+        public void process(GameWorld world) {
+            mPending = false;
+        }
+    }
+}
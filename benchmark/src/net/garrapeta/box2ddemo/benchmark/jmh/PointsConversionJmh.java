@@ -0,0 +1,74 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import net.garrapeta.box2ddemo.gameengine.PointsConversionUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Conversions between world and screen coordinates, done for every actor every frame.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PointsConversionJmh {
+
+    PointsConversionUtils conversion;
+    float worldX = 3.2f;
+    float worldY = 7.9f;
+    float screenX = 211f;
+    float screenY = 604f;
+    Vector2 worldPos = new Vector2();
+    Vector2 screenPos = new Vector2();
+    float[] points = new float[64];
+
+    @Setup
+    public void setup() {
+        conversion = PointsConversionUtils.getInstance();
+        conversion.init(53.3f, 9f, 15f);
+    }
+
+    @Benchmark
+    public void worldToScreen(Blackhole blackhole) {
+        blackhole.consume(conversion.worldToScreenX(worldX));
+        blackhole.consume(conversion.worldToScreenY(worldY));
+    }
+
+    @Benchmark
+    public Vector2 worldToScreenInto() {
+        return conversion.worldToScreen(worldX, worldY, screenPos);
+    }
+
+    @Benchmark
+    public Vector2 screenToWorld() {
+        return conversion.screenToWorld(screenX, screenY);
+    }
+
+    @Benchmark
+    public Vector2 screenToWorldInto() {
+        return conversion.screenToWorld(screenX, screenY, worldPos);
+    }
+
+    @Benchmark
+    public float[] worldToScreenBatch() {
+        conversion.worldToScreen(points, 0, points, 0, points.length / 2);
+        conversion.screenToWorld(points, 0, points, 0, points.length / 2);
+        return points;
+    }
+}
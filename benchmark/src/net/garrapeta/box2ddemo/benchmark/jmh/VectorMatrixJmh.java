@@ -0,0 +1,85 @@
+package net.garrapeta.box2ddemo.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Vector2 and Matrix4 operations
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VectorMatrixJmh {
+
+    Vector2 a = new Vector2(1.5f, -2.25f);
+    Vector2 b = new Vector2(-0.5f, 4f);
+    Vector2 result = new Vector2();
+
+    Matrix4 m1 = new Matrix4();
+    Matrix4 m2 = new Matrix4();
+    Matrix4 product = new Matrix4();
+
+    @Setup
+    public void setup() {
+        m1.setToRotation(0, 0, 1, 30);
+        m1.trn(2, 3, 0);
+        m2.setToScaling(1.5f, 1.5f, 1);
+    }
+
+    @Benchmark
+    public Vector2 vectorAddMul() {
+        return result.set(a).add(b).mul(0.5f);
+    }
+
+    @Benchmark
+    public Vector2 vectorNor() {
+        return result.set(a).nor();
+    }
+
+    @Benchmark
+    public Vector2 vectorRotate() {
+        return result.set(a).rotate(33f);
+    }
+
+    @Benchmark
+    public float vectorDst() {
+        return a.dst(b);
+    }
+
+    @Benchmark
+    public Vector2 vectorCpy() {
+        // Allocates, as a reference for the allocation rate
+        return a.cpy();
+    }
+
+    @Benchmark
+    public Matrix4 matrixMul() {
+        return product.set(m1).mul(m2);
+    }
+
+    @Benchmark
+    public Matrix4 matrixInv() {
+        return product.set(m1).inv();
+    }
+
+    @Benchmark
+    public float matrixDet() {
+        return m1.det();
+    }
+}
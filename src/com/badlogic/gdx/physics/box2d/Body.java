@@ -31,6 +31,10 @@ public class Body {
 	/** the address of the body **/
 	protected long addr;
 
+	/** index of the body in {@link World#bodySlots}, also kept in the native user data, or -1 without
+	 * {@link World#setIndexLookup(boolean)} **/
+	int index = -1;
+
 	/** temporary float array **/
 	private final float[] tmp = new float[4];
 
@@ -57,6 +61,7 @@ public class Body {
 	/** Resets this body after fetching it from the {@link World#freeBodies} Pool. */
 	protected void reset (long addr) {
 		this.addr = addr;
+		this.index = -1;
 		this.userData = null;
 		for (int i = 0; i < fixtures.size(); i++)
 			this.world.freeFixtures.free(fixtures.get(i));
@@ -64,6 +69,15 @@ public class Body {
 		this.joints.clear();
 	}
 
+	/** Wraps a fixture already created in the native body, taking the wrapper from the {@link World#freeFixtures} Pool. */
+	Fixture addFixture (long fixtureAddr) {
+		Fixture fixture = this.world.freeFixtures.obtain();
+		fixture.reset(this, fixtureAddr);
+		this.world.fixtures.put(fixture.addr, fixture);
+		this.fixtures.add(fixture);
+		return fixture;
+	}
+
 	/** Creates a fixture and attach it to this body. Use this function if you need to set some fixture parameters, like friction.
 	 * Otherwise you can create the fixture directly from a shape. If the density is non-zero, this function automatically updates
 	 * the mass of the body. Contacts are not created until the next time step.
@@ -72,11 +86,7 @@ public class Body {
 	public Fixture createFixture (FixtureDef def) {
 		long fixtureAddr = jniCreateFixture(addr, def.shape.addr, def.friction, def.restitution, def.density, def.isSensor,
 			def.filter.categoryBits, def.filter.maskBits, def.filter.groupIndex);
-		Fixture fixture = this.world.freeFixtures.obtain();
-		fixture.reset(this, fixtureAddr);
-		this.world.fixtures.put(fixture.addr, fixture);
-		this.fixtures.add(fixture);
-		return fixture;
+		return this.world.indexFixture(addFixture(fixtureAddr));
 	}
 
 	private native long jniCreateFixture (long addr, long shapeAddr, float friction, float restitution, float density,
@@ -105,11 +115,7 @@ public class Body {
 	 * @warning This function is locked during callbacks. */
 	public Fixture createFixture (Shape shape, float density) {
 		long fixtureAddr = jniCreateFixture(addr, shape.addr, density);
-		Fixture fixture = this.world.freeFixtures.obtain();
-		fixture.reset(this, fixtureAddr);
-		this.world.fixtures.put(fixture.addr, fixture);
-		this.fixtures.add(fixture);
-		return fixture;
+		return this.world.indexFixture(addFixture(fixtureAddr));
 	}
 
 	private native long jniCreateFixture (long addr, long shapeAddr, float density); /*
@@ -126,6 +132,7 @@ public class Body {
 	public void destroyFixture (Fixture fixture) {
 		jniDestroyFixture(addr, fixture.addr);
 		this.world.fixtures.remove(fixture.addr);
+		this.world.unindexFixture(fixture);
 		this.fixtures.remove(fixture);
 		this.world.freeFixtures.free(fixture);
 	}
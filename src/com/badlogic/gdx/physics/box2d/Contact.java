@@ -107,6 +107,7 @@ public class Contact {
 
 	/** Get the first fixture in this contact. */
 	public Fixture getFixtureA () {
+		if (world.indexLookup) return world.fixtureSlots.get(jniGetFixtureAIndex(addr));
 		return world.fixtures.get(jniGetFixtureA(addr));
 	}
 
@@ -115,8 +116,14 @@ public class Contact {
 		return (jlong)contact->GetFixtureA();
 	*/
 
+	private native int jniGetFixtureAIndex (long addr); /*
+		b2Contact* contact = (b2Contact*)addr;
+		return (jint)(size_t)contact->GetFixtureA()->GetUserData() - 1;
+	*/
+
 	/** Get the second fixture in this contact. */
 	public Fixture getFixtureB () {
+		if (world.indexLookup) return world.fixtureSlots.get(jniGetFixtureBIndex(addr));
 		return world.fixtures.get(jniGetFixtureB(addr));
 	}
 
@@ -125,6 +132,11 @@ public class Contact {
 		return (jlong)contact->GetFixtureB();
 	*/
 
+	private native int jniGetFixtureBIndex (long addr); /*
+		b2Contact* contact = (b2Contact*)addr;
+		return (jint)(size_t)contact->GetFixtureB()->GetUserData() - 1;
+	*/
+
 	/** Get the child primitive index for fixture A. */
 	public int getChildIndexA () {
 		return jniGetChildIndexA(addr);
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.physics.box2d;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/** Contact events written by the native code during a {@link World#step(float, int, int)}, instead of calling the
+ * {@link ContactListener} for each of them. Enabled with {@link World#setContactEventBuffering(int)}, and read after the step
+ * with {@link World#getContactEvents()}.
+ * 
+ * Each event is a fixed size record in a direct buffer: its type, the fixtures, and for begin contact and post solve events the
+ * world manifold (normal and points). Post solve events also have the impulses. Pre solve is not buffered, since it is only
+ * useful to modify the contact while it is being solved.
+ * 
+ * The events that do not fit in the buffer are dropped and counted in {@link #getDroppedCount()}. */
+public class ContactEventBuffer {
+	public static final int BEGIN_CONTACT = 0;
+	public static final int END_CONTACT = 1;
+	public static final int POST_SOLVE = 2;
+
+	/** Layout of a record, in bytes. Must match ContactEventRecord in World **/
+	static final int RECORD_SIZE = 64;
+	private static final int TYPE = 0;
+	private static final int POINT_COUNT = 4;
+	private static final int FIXTURE_A = 8;
+	private static final int FIXTURE_B = 16;
+	private static final int NORMAL = 24;
+	private static final int POINTS = 32;
+	private static final int NORMAL_IMPULSES = 48;
+	private static final int TANGENT_IMPULSES = 56;
+
+	private final World world;
+	final ByteBuffer buffer;
+	final int capacity;
+	int count;
+	int dropped;
+
+	protected ContactEventBuffer (World world, int capacity) {
+		this.world = world;
+		this.capacity = capacity;
+		this.buffer = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+	}
+
+	/** @return the maximum number of events per step */
+	public int getCapacity () {
+		return capacity;
+	}
+
+	/** @return the number of events of the last step */
+	public int getCount () {
+		return count;
+	}
+
+	/** @return the number of events of the last step that did not fit in the buffer */
+	public int getDroppedCount () {
+		return dropped;
+	}
+
+	/** @return {@link #BEGIN_CONTACT}, {@link #END_CONTACT} or {@link #POST_SOLVE} */
+	public int getType (int event) {
+		return buffer.getInt(offset(event) + TYPE);
+	}
+
+	public Fixture getFixtureA (int event) {
+		return getFixture(buffer.getLong(offset(event) + FIXTURE_A));
+	}
+
+	public Fixture getFixtureB (int event) {
+		return getFixture(buffer.getLong(offset(event) + FIXTURE_B));
+	}
+
+	/** @param fixture address of the fixture, or its index with {@link World#setIndexLookup(boolean)} */
+	private Fixture getFixture (long fixture) {
+		if (world.indexLookup) return world.fixtureSlots.get((int)fixture);
+		return world.fixtures.get(fixture);
+	}
+
+	/** @return the number of points of the world manifold (0, 1 or 2). Always 0 for end contact events */
+	public int getPointCount (int event) {
+		return buffer.getInt(offset(event) + POINT_COUNT);
+	}
+
+	public float getNormalX (int event) {
+		return buffer.getFloat(offset(event) + NORMAL);
+	}
+
+	public float getNormalY (int event) {
+		return buffer.getFloat(offset(event) + NORMAL + 4);
+	}
+
+	public float getPointX (int event, int point) {
+		return buffer.getFloat(offset(event) + POINTS + point * 8);
+	}
+
+	public float getPointY (int event, int point) {
+		return buffer.getFloat(offset(event) + POINTS + point * 8 + 4);
+	}
+
+	/** @return the normal impulse of the point. Only for post solve events */
+	public float getNormalImpulse (int event, int point) {
+		return buffer.getFloat(offset(event) + NORMAL_IMPULSES + point * 4);
+	}
+
+	/** @return the tangent impulse of the point. Only for post solve events */
+	public float getTangentImpulse (int event, int point) {
+		return buffer.getFloat(offset(event) + TANGENT_IMPULSES + point * 4);
+	}
+
+	private int offset (int event) {
+		if (event < 0 || event >= count) throw new IndexOutOfBoundsException("event can't be >= count: " + event + " >= " + count);
+		return event * RECORD_SIZE;
+	}
+}
@@ -30,6 +30,10 @@ public class Fixture {
 	/** the address of the fixture **/
 	protected long addr;
 
+	/** index of the fixture in {@link World#fixtureSlots}, also kept in the native user data, or -1 without
+	 * {@link World#setIndexLookup(boolean)} **/
+	int index = -1;
+
 	/** the shape, initialized lazy **/
 	protected Shape shape;
 
@@ -46,6 +50,7 @@ public class Fixture {
 	protected void reset (Body body, long addr) {
 		this.body = body;
 		this.addr = addr;
+		this.index = -1;
 		this.shape = null;
 		this.userData = null;
 	}
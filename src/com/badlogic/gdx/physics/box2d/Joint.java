@@ -61,6 +61,7 @@ public abstract class Joint {
 
 	/** Get the first body attached to this joint. */
 	public Body getBodyA () {
+		if (world.indexLookup) return world.bodySlots.get(jniGetBodyAIndex(addr));
 		return world.bodies.get(jniGetBodyA(addr));
 	}
 
@@ -69,8 +70,14 @@ public abstract class Joint {
 		return (jlong)joint->GetBodyA();
 	*/
 
+	private native int jniGetBodyAIndex (long addr); /*
+		b2Joint* joint = (b2Joint*)addr;
+		return (jint)(size_t)joint->GetBodyA()->GetUserData() - 1;
+	*/
+
 	/** Get the second body attached to this joint. */
 	public Body getBodyB () {
+		if (world.indexLookup) return world.bodySlots.get(jniGetBodyBIndex(addr));
 		return world.bodies.get(jniGetBodyB(addr));
 	}
 
@@ -79,6 +86,11 @@ public abstract class Joint {
 		return (jlong)joint->GetBodyB();
 	*/
 
+	private native int jniGetBodyBIndex (long addr); /*
+		b2Joint* joint = (b2Joint*)addr;
+		return (jint)(size_t)joint->GetBodyB()->GetUserData() - 1;
+	*/
+
 	/** Get the anchor point on bodyA in world coordinates. */
 	private final Vector2 anchorA = new Vector2();
 
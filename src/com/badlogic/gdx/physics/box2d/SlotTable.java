@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.physics.box2d;
+
+/** Table of the Java wrappers of native objects, by a dense index. The native object keeps the index in its user data (as
+ * index + 1, so 0 means none), and the callbacks pass it instead of the address, so the wrapper is found by indexing an array
+ * instead of hashing the address. The indexes of the removed wrappers are reused. Only used with
+ * {@link World#setIndexLookup(boolean)}. */
+final class SlotTable<T> {
+	private Object[] items;
+	private int[] freeIndexes;
+	private int freeCount;
+	/** number of indexes ever used **/
+	private int size;
+
+	SlotTable (int initialCapacity) {
+		items = new Object[initialCapacity];
+		freeIndexes = new int[initialCapacity];
+	}
+
+	/** @return a free index, to be filled with {@link #set(int, Object)} once the native object exists */
+	int reserve () {
+		if (freeCount > 0) return freeIndexes[--freeCount];
+		if (size == items.length) {
+			Object[] newItems = new Object[size * 2];
+			System.arraycopy(items, 0, newItems, 0, size);
+			items = newItems;
+		}
+		return size++;
+	}
+
+	void set (int index, T item) {
+		items[index] = item;
+	}
+
+	/** @return the wrapper with the index, or null if the index is not used (-1 included) */
+	@SuppressWarnings("unchecked")
+	T get (int index) {
+		if (index < 0 || index >= size) return null;
+		return (T)items[index];
+	}
+
+	/** Frees the index, to be reused */
+	void free (int index) {
+		if (index < 0 || index >= size || items[index] == null)
+			throw new IllegalArgumentException("index not in use: " + index);
+		items[index] = null;
+		if (freeCount == freeIndexes.length) {
+			int[] newFreeIndexes = new int[freeCount * 2];
+			System.arraycopy(freeIndexes, 0, newFreeIndexes, 0, freeCount);
+			freeIndexes = newFreeIndexes;
+		}
+		freeIndexes[freeCount++] = index;
+	}
+}
@@ -16,6 +16,8 @@
 
 package com.badlogic.gdx.physics.box2d;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -42,6 +44,7 @@ import com.badlogic.gdx.physics.box2d.joints.WeldJoint;
 import com.badlogic.gdx.physics.box2d.joints.WeldJointDef;
 import com.badlogic.gdx.physics.box2d.joints.WheelJoint;
 import com.badlogic.gdx.physics.box2d.joints.WheelJointDef;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.LongMap;
 import com.badlogic.gdx.utils.Pool;
@@ -62,21 +65,42 @@ static jmethodID postSolveID = 0;
 static jmethodID reportFixtureID = 0;
 static jmethodID reportRayFixtureID = 0;
 
+// Callbacks that pass the index of the wrapper instead of the address, see setIndexLookup()
+static jmethodID shouldCollideIndexID = 0;
+static jmethodID reportFixtureIndexID = 0;
+static jmethodID reportRayFixtureIndexID = 0;
+
+// With index lookup, bodies and fixtures keep the index of their Java wrapper in the user data, as index + 1
+inline jint getIndex( void* userData )
+{
+	return (jint)(size_t)userData - 1;
+}
+
+inline void* toUserData( jint index )
+{
+	return (void*)(size_t)(index + 1);
+}
+
 class CustomRayCastCallback: public b2RayCastCallback
 {
 private:
 	JNIEnv* env;
 	jobject obj;
+	bool indexed;
 
 public:
-	CustomRayCastCallback( JNIEnv *env, jobject obj )
+	CustomRayCastCallback( JNIEnv *env, jobject obj, bool indexed = false )
 	{
 		this->env = env;
 		this->obj = obj;
+		this->indexed = indexed;
 	}
 
 	virtual float32 ReportFixture( b2Fixture* fixture, const b2Vec2& point, const b2Vec2& normal, float32 fraction)
 	{
+		if( indexed )
+			return env->CallFloatMethod(obj, reportRayFixtureIndexID, getIndex(fixture->GetUserData()), (jfloat)point.x,
+																(jfloat)point.y, (jfloat)normal.x, (jfloat)normal.y, (jfloat)fraction );
 		return env->CallFloatMethod(obj, reportRayFixtureID, (jlong)fixture, (jfloat)point.x, (jfloat)point.y,
 																(jfloat)normal.x, (jfloat)normal.y, (jfloat)fraction );
 	}
@@ -87,16 +111,21 @@ class CustomContactFilter: public b2ContactFilter
 private:
 	JNIEnv* env;
 	jobject obj;
+	bool indexed;
 
 public:
-	CustomContactFilter( JNIEnv* env, jobject obj )
+	CustomContactFilter( JNIEnv* env, jobject obj, bool indexed = false )
 	{
 		this->env = env;
 		this->obj = obj;
+		this->indexed = indexed;
 	}
 
 	virtual bool ShouldCollide(b2Fixture* fixtureA, b2Fixture* fixtureB)
 	{
+		if( indexed )
+			return env->CallBooleanMethod( obj, shouldCollideIndexID, getIndex(fixtureA->GetUserData()),
+																getIndex(fixtureB->GetUserData()) );
 		if( shouldCollideID != 0 )
 			return env->CallBooleanMethod( obj, shouldCollideID, (jlong)fixtureA, (jlong)fixtureB );
 		else
@@ -151,16 +180,20 @@ class CustomQueryCallback: public b2QueryCallback
 private:
 	JNIEnv* env;
 	jobject obj;
+	bool indexed;
 
 public:
-	CustomQueryCallback( JNIEnv* env, jobject obj )
+	CustomQueryCallback( JNIEnv* env, jobject obj, bool indexed = false )
 	{
 		this->env = env;
 		this->obj = obj;
+		this->indexed = indexed;
 	}
 
 	virtual bool ReportFixture( b2Fixture* fixture )
 	{
+		if( indexed )
+			return env->CallBooleanMethod(obj, reportFixtureIndexID, getIndex(fixture->GetUserData()) );
 		return env->CallBooleanMethod(obj, reportFixtureID, (jlong)fixture );
 	}
 }; 
@@ -177,6 +210,103 @@ inline b2BodyType getBodyType( int type )
 	}
 }
 
+struct ContactEventRecord
+{
+	jint type;
+	jint pointCount;
+	jlong fixtureA; // address of the fixture, or index of its wrapper with index lookup
+	jlong fixtureB;
+	jfloat normal[2];
+	jfloat points[4];
+	jfloat normalImpulses[2];
+	jfloat tangentImpulses[2];
+};
+
+class BufferedContactListener: public b2ContactListener
+{
+private:
+	ContactEventRecord* records;
+	int capacity;
+	bool indexed;
+
+	ContactEventRecord* next( int type, b2Contact* contact )
+	{
+		if( count == capacity )
+		{
+			dropped++;
+			return 0;
+		}
+		ContactEventRecord* record = &records[count++];
+		memset( record, 0, sizeof(ContactEventRecord) );
+		record->type = type;
+		if( indexed )
+		{
+			record->fixtureA = getIndex(contact->GetFixtureA()->GetUserData());
+			record->fixtureB = getIndex(contact->GetFixtureB()->GetUserData());
+		}
+		else
+		{
+			record->fixtureA = (jlong)contact->GetFixtureA();
+			record->fixtureB = (jlong)contact->GetFixtureB();
+		}
+		return record;
+	}
+
+	void writeManifold( ContactEventRecord* record, b2Contact* contact )
+	{
+		b2WorldManifold manifold;
+		contact->GetWorldManifold(&manifold);
+		int numPoints = contact->GetManifold()->pointCount;
+		record->pointCount = numPoints;
+		record->normal[0] = manifold.normal.x;
+		record->normal[1] = manifold.normal.y;
+		for( int i = 0; i < numPoints; i++ )
+		{
+			record->points[i*2] = manifold.points[i].x;
+			record->points[i*2+1] = manifold.points[i].y;
+		}
+	}
+
+public:
+	int count;
+	int dropped;
+
+	BufferedContactListener( ContactEventRecord* records, int capacity, bool indexed = false )
+	{
+		this->records = records;
+		this->capacity = capacity;
+		this->indexed = indexed;
+		this->count = 0;
+		this->dropped = 0;
+	}
+
+	virtual void BeginContact(b2Contact* contact)
+	{
+		ContactEventRecord* record = next( 0, contact );
+		if( record )
+			writeManifold( record, contact );
+	}
+
+	virtual void EndContact(b2Contact* contact)
+	{
+		next( 1, contact );
+	}
+
+	virtual void PostSolve(b2Contact* contact, const b2ContactImpulse* impulse)
+	{
+		ContactEventRecord* record = next( 2, contact );
+		if( record )
+		{
+			writeManifold( record, contact );
+			for( int i = 0; i < impulse->count && i < 2; i++ )
+			{
+				record->normalImpulses[i] = impulse->normalImpulses[i];
+				record->tangentImpulses[i] = impulse->tangentImpulses[i];
+			}
+		}
+	}
+};
+
 b2ContactFilter defaultFilter;
 	 */
 	
@@ -205,6 +335,13 @@ b2ContactFilter defaultFilter;
 	/** all known fixtures **/
 	protected final LongMap<Fixture> fixtures = new LongMap<Fixture>(100);
 
+	/** whether the wrappers are found by the index kept in the native user data, see {@link #setIndexLookup(boolean)} **/
+	boolean indexLookup = false;
+
+	/** all known bodies and fixtures, by the index kept in their native user data. Only with index lookup **/
+	final SlotTable<Body> bodySlots = new SlotTable<Body>(100);
+	final SlotTable<Fixture> fixtureSlots = new SlotTable<Fixture>(100);
+
 	/** all known joints **/
 	protected final LongMap<Joint> joints = new LongMap<Joint>(100);
 
@@ -261,7 +398,96 @@ b2ContactFilter defaultFilter;
 		// FIXME
 	*/
 
-	/** Register a contact event listener. The listener is owned by you and must remain in scope. */
+	/** whether the steps without a {@link ContactFilter} filter the contacts in native code **/
+	private boolean nativeContactFilter = false;
+
+	/** Makes the steps filter the contacts with Box2D's default filter in native code while there is no {@link ContactFilter},
+	 * instead of calling {@link #contactFilter(long, long)} for every pair, which costs a JNI upcall and two lookups per pair.
+	 * Its native is not in the prebuilt gdx library, it needs one built from these sources.
+	 * @param enabled */
+	public void setNativeContactFilter (boolean enabled) {
+		nativeContactFilter = enabled;
+	}
+
+	/** @return whether the contacts are filtered in native code while there is no {@link ContactFilter}
+	 * @see #setNativeContactFilter(boolean) */
+	public boolean isNativeContactFilter () {
+		return nativeContactFilter;
+	}
+
+	/** Makes the native callbacks (contact filter, query, ray cast and buffered contact events), {@link Contact#getFixtureA()},
+	 * {@link Contact#getFixtureB()}, {@link Joint#getBodyA()} and {@link Joint#getBodyB()} pass the index of the wrapper,
+	 * kept in the native user data of the bodies and fixtures, instead of their address. So the wrapper is found by indexing an
+	 * array instead of hashing the address. Creating a body or a fixture costs one more native call, and
+	 * {@link #createBodies(float[], int[], Shape[], int, Array)} one more per call. It has to be set before creating any body.
+	 * Its natives are not in the prebuilt gdx library, it needs one built from these sources: with the prebuilt one enabling it
+	 * throws UnsatisfiedLinkError.
+	 * @param enabled */
+	public void setIndexLookup (boolean enabled) {
+		if (bodies.size > 0) throw new IllegalStateException("index lookup can't be changed once there are bodies");
+		if (enabled) jniInitIndexLookup();
+		indexLookup = enabled;
+	}
+
+	/** @return whether the wrappers are found by index
+	 * @see #setIndexLookup(boolean) */
+	public boolean isIndexLookup () {
+		return indexLookup;
+	}
+
+	private native void jniInitIndexLookup (); /*
+		shouldCollideIndexID = env->GetMethodID( worldClass, "contactFilterIndex", "(II)Z" );
+		reportFixtureIndexID = env->GetMethodID( worldClass, "reportFixtureIndex", "(I)Z" );
+		reportRayFixtureIndexID = env->GetMethodID( worldClass, "reportRayFixtureIndex", "(IFFFFF)F" );
+	*/
+
+	/** Gives the body an index in {@link #bodySlots}, and writes it in its native user data. Does nothing without index lookup **/
+	Body indexBody (Body body) {
+		if (indexLookup) {
+			body.index = bodySlots.reserve();
+			bodySlots.set(body.index, body);
+			jniSetBodyIndex(body.addr, body.index);
+		}
+		return body;
+	}
+
+	/** Gives the fixture an index in {@link #fixtureSlots}, and writes it in its native user data. Does nothing without index
+	 * lookup **/
+	Fixture indexFixture (Fixture fixture) {
+		if (indexLookup) {
+			fixture.index = fixtureSlots.reserve();
+			fixtureSlots.set(fixture.index, fixture);
+			jniSetFixtureIndex(fixture.addr, fixture.index);
+		}
+		return fixture;
+	}
+
+	/** Frees the index of the body, if it has one. Its native user data goes with the native body **/
+	void unindexBody (Body body) {
+		if (body.index >= 0) {
+			bodySlots.free(body.index);
+			body.index = -1;
+		}
+	}
+
+	/** Frees the index of the fixture, if it has one. Its native user data goes with the native fixture **/
+	void unindexFixture (Fixture fixture) {
+		if (fixture.index >= 0) {
+			fixtureSlots.free(fixture.index);
+			fixture.index = -1;
+		}
+	}
+
+	private native void jniSetBodyIndex (long bodyAddr, int index); /*
+		((b2Body*)bodyAddr)->SetUserData( toUserData(index) );
+	*/
+
+	private native void jniSetFixtureIndex (long fixtureAddr, int index); /*
+		((b2Fixture*)fixtureAddr)->SetUserData( toUserData(index) );
+	*/
+
+	/** Register a contact event listener. The listener is owned by you and must remain in scope. It is not called while the
+	 * contact events are buffered, see {@link #setContactEventBuffering(int)}. */
 	public void setContactListener (ContactListener listener) {
 		this.contactListener = listener;
 	}
@@ -275,7 +501,7 @@ b2ContactFilter defaultFilter;
 		Body body = freeBodies.obtain();
 		body.reset(bodyAddr);
 		this.bodies.put(body.addr, body);
-		return body;
+		return indexBody(body);
 	}
 
 	private native long jniCreateBody (long addr, int type, float positionX, float positionY, float angle, float linearVelocityX,
@@ -301,6 +527,129 @@ b2ContactFilter defaultFilter;
 		return (jlong)body;
 	*/
 
+	/** Floats per body in the definitions of {@link #createBodies(float[], int[], Shape[], int, Array)}: position x, position y,
+	 * angle, linear damping, angular damping, gravity scale, and density, friction and restitution of the fixture. */
+	public static final int BULK_BODY_FLOATS = 9;
+
+	/** Ints per body in the definitions of {@link #createBodies(float[], int[], Shape[], int, Array)}: body type value, flags,
+	 * and index of the shape of the fixture, or -1 for no fixture. */
+	public static final int BULK_BODY_INTS = 3;
+
+	/** Flags of the bodies created in bulk */
+	public static final int BULK_ALLOW_SLEEP = 1;
+	public static final int BULK_AWAKE = 2;
+	public static final int BULK_FIXED_ROTATION = 4;
+	public static final int BULK_BULLET = 8;
+	public static final int BULK_ACTIVE = 16;
+
+	/** addresses of the shapes, bodies and fixtures of the bulk creation, and indexes of their wrappers with index lookup, reused
+	 * between calls **/
+	private long[] tmpShapeAddrs = new long[8];
+	private long[] tmpBodyAddrs = new long[100];
+	private long[] tmpFixtureAddrs = new long[100];
+	private int[] tmpBodyIndexes;
+	private int[] tmpFixtureIndexes;
+
+	/** Creates many bodies, each with one fixture, with a single native call, instead of one call for the body, one for the
+	 * fixture and more for its properties. The definitions are packed in two arrays, {@link #BULK_BODY_FLOATS} floats and
+	 * {@link #BULK_BODY_INTS} ints per body. The {@link Body} and {@link Fixture} wrappers are taken from the pools.
+	 * Its native is not in the prebuilt gdx library, it needs one built from these sources.
+	 * @param floatDefs float part of the definitions
+	 * @param intDefs int part of the definitions
+	 * @param shapes shapes the fixtures refer to by index. They are copied, as in {@link Body#createFixture(Shape, float)}
+	 * @param count number of bodies
+	 * @param out array the bodies are added to, in the order of the definitions
+	 * @warning This function is locked during callbacks. */
+	public void createBodies (float[] floatDefs, int[] intDefs, Shape[] shapes, int count, Array<Body> out) {
+		if (floatDefs.length < count * BULK_BODY_FLOATS || intDefs.length < count * BULK_BODY_INTS)
+			throw new IllegalArgumentException("definitions too small for " + count + " bodies");
+		if (tmpShapeAddrs.length < shapes.length) tmpShapeAddrs = new long[shapes.length];
+		for (int i = 0; i < shapes.length; i++)
+			tmpShapeAddrs[i] = shapes[i] != null ? shapes[i].addr : 0;
+		for (int i = 0; i < count; i++) {
+			int shape = intDefs[i * BULK_BODY_INTS + 2];
+			if (shape < -1 || shape >= shapes.length || (shape >= 0 && shapes[shape] == null))
+				throw new IllegalArgumentException("no shape " + shape + " for body " + i);
+		}
+		if (tmpBodyAddrs.length < count) {
+			tmpBodyAddrs = new long[Math.max(count, tmpBodyAddrs.length * 2)];
+			tmpFixtureAddrs = new long[tmpBodyAddrs.length];
+		}
+
+		jniCreateBodies(addr, floatDefs, intDefs, tmpShapeAddrs, count, tmpBodyAddrs, tmpFixtureAddrs);
+
+		if (indexLookup && (tmpBodyIndexes == null || tmpBodyIndexes.length < count)) {
+			tmpBodyIndexes = new int[tmpBodyAddrs.length];
+			tmpFixtureIndexes = new int[tmpBodyAddrs.length];
+		}
+
+		out.ensureCapacity(count);
+		for (int i = 0; i < count; i++) {
+			Body body = freeBodies.obtain();
+			body.reset(tmpBodyAddrs[i]);
+			this.bodies.put(body.addr, body);
+			Fixture fixture = tmpFixtureAddrs[i] != 0 ? body.addFixture(tmpFixtureAddrs[i]) : null;
+			if (indexLookup) {
+				// Written in the native user data below, all of them in one call
+				body.index = bodySlots.reserve();
+				bodySlots.set(body.index, body);
+				tmpBodyIndexes[i] = body.index;
+				if (fixture != null) {
+					fixture.index = fixtureSlots.reserve();
+					fixtureSlots.set(fixture.index, fixture);
+				}
+				tmpFixtureIndexes[i] = fixture != null ? fixture.index : -1;
+			}
+			out.add(body);
+		}
+		if (indexLookup) jniSetIndexes(tmpBodyAddrs, tmpBodyIndexes, tmpFixtureAddrs, tmpFixtureIndexes, count);
+	}
+
+	private native void jniSetIndexes (long[] bodyAddrs, int[] bodyIndexes, long[] fixtureAddrs, int[] fixtureIndexes,
+		int count); /*
+		for( int i = 0; i < count; i++ )
+		{
+			((b2Body*)bodyAddrs[i])->SetUserData( toUserData(bodyIndexes[i]) );
+			if( fixtureAddrs[i] != 0 )
+				((b2Fixture*)fixtureAddrs[i])->SetUserData( toUserData(fixtureIndexes[i]) );
+		}
+	*/
+
+	private native void jniCreateBodies (long addr, float[] floatDefs, int[] intDefs, long[] shapeAddrs, int count,
+		long[] bodyAddrs, long[] fixtureAddrs); /*
+		b2World* world = (b2World*)addr;
+		for( int i = 0; i < count; i++ )
+		{
+			const float* f = floatDefs + i * 9;
+			const int* n = intDefs + i * 3;
+			b2BodyDef bodyDef;
+			bodyDef.type = getBodyType(n[0]);
+			bodyDef.position.Set( f[0], f[1] );
+			bodyDef.angle = f[2];
+			bodyDef.linearDamping = f[3];
+			bodyDef.angularDamping = f[4];
+			bodyDef.gravityScale = f[5];
+			bodyDef.allowSleep = (n[1] & 1) != 0;
+			bodyDef.awake = (n[1] & 2) != 0;
+			bodyDef.fixedRotation = (n[1] & 4) != 0;
+			bodyDef.bullet = (n[1] & 8) != 0;
+			bodyDef.active = (n[1] & 16) != 0;
+			b2Body* body = world->CreateBody( &bodyDef );
+			bodyAddrs[i] = (jlong)body;
+
+			fixtureAddrs[i] = 0;
+			if( n[2] >= 0 )
+			{
+				b2FixtureDef fixtureDef;
+				fixtureDef.shape = (b2Shape*)shapeAddrs[n[2]];
+				fixtureDef.density = f[6];
+				fixtureDef.friction = f[7];
+				fixtureDef.restitution = f[8];
+				fixtureAddrs[i] = (jlong)body->CreateFixture( &fixtureDef );
+			}
+		}
+	*/
+
 	/** Destroy a rigid body given a definition. No reference to the definition is retained. This function is locked during
 	 * callbacks.
 	 * @warning This automatically deletes all associated shapes and joints.
@@ -308,9 +657,13 @@ b2ContactFilter defaultFilter;
 	public void destroyBody (Body body) {
 		body.setUserData(null);
 		this.bodies.remove(body.addr);
+		unindexBody(body);
 		List<Fixture> fixtureList = body.getFixtureList();
 		while(!fixtureList.isEmpty()) {
-			this.fixtures.remove(fixtureList.remove(0).addr).setUserData(null);
+			Fixture fixture = fixtureList.remove(0);
+			this.fixtures.remove(fixture.addr);
+			unindexFixture(fixture);
+			fixture.setUserData(null);
 		}
 		List<JointEdge> jointList = body.getJointList();
 		while (!jointList.isEmpty())
@@ -596,7 +949,23 @@ b2ContactFilter defaultFilter;
 	 * @param velocityIterations for the velocity constraint solver.
 	 * @param positionIterations for the position constraint solver. */
 	public void step (float timeStep, int velocityIterations, int positionIterations) {
-		jniStep(addr, timeStep, velocityIterations, positionIterations);
+		boolean defaultFilter = nativeContactFilter && contactFilter == null;
+		if (contactEvents != null) {
+			if (indexLookup)
+				jniStepBufferedIndexed(addr, timeStep, velocityIterations, positionIterations, defaultFilter, contactEvents.buffer,
+					contactEvents.capacity, contactEventCounts);
+			else
+				jniStepBuffered(addr, timeStep, velocityIterations, positionIterations, defaultFilter, contactEvents.buffer,
+					contactEvents.capacity, contactEventCounts);
+			contactEvents.count = contactEventCounts[0];
+			contactEvents.dropped = contactEventCounts[1];
+		} else if (indexLookup) {
+			jniStepIndexed(addr, timeStep, velocityIterations, positionIterations, defaultFilter);
+		} else if (defaultFilter) {
+			jniStepDefaultFilter(addr, timeStep, velocityIterations, positionIterations);
+		} else {
+			jniStep(addr, timeStep, velocityIterations, positionIterations);
+		}
 	}
 
 	private native void jniStep (long addr, float timeStep, int velocityIterations, int positionIterations); /*
@@ -610,6 +979,78 @@ b2ContactFilter defaultFilter;
 		world->SetContactListener(0);
 	*/
 
+	private native void jniStepDefaultFilter (long addr, float timeStep, int velocityIterations, int positionIterations); /*
+		b2World* world = (b2World*)addr;
+		CustomContactListener contactListener(env,object);
+		// Box2D's own category/mask/group check, with no upcall per pair
+		world->SetContactFilter(&defaultFilter);
+		world->SetContactListener(&contactListener);
+		world->Step( timeStep, velocityIterations, positionIterations );
+		world->SetContactListener(0);
+	*/
+
+	private native void jniStepIndexed (long addr, float timeStep, int velocityIterations, int positionIterations,
+		boolean useDefaultFilter); /*
+		b2World* world = (b2World*)addr;
+		CustomContactFilter contactFilter(env, object, true);
+		CustomContactListener contactListener(env,object);
+		world->SetContactFilter(useDefaultFilter ? &defaultFilter : &contactFilter);
+		world->SetContactListener(&contactListener);
+		world->Step( timeStep, velocityIterations, positionIterations );
+		world->SetContactFilter(&defaultFilter);
+		world->SetContactListener(0);
+	*/
+
+	/** buffered contact events, null if the contact listener is called instead **/
+	private ContactEventBuffer contactEvents = null;
+
+	/** count and dropped count of the buffered contact events, written by jniStepBuffered **/
+	private final int[] contactEventCounts = new int[2];
+
+	/** Makes the contact events of each step to be written in a buffer instead of calling the {@link ContactListener} for each of
+	 * them, which saves a JNI upcall per event. The events of the last step are read with {@link #getContactEvents()}.
+	 * Its native is not in the prebuilt gdx library, it needs one built from these sources: with the prebuilt one the next
+	 * {@link #step(float, int, int)} throws UnsatisfiedLinkError.
+	 * @param capacity maximum number of events per step, 0 to go back to calling the contact listener */
+	public void setContactEventBuffering (int capacity) {
+		if (capacity < 0) throw new IllegalArgumentException("capacity can't be negative: " + capacity);
+		contactEvents = capacity > 0 ? new ContactEventBuffer(this, capacity) : null;
+	}
+
+	/** @return the contact events of the last step, or null if they are not buffered
+	 * @see #setContactEventBuffering(int) */
+	public ContactEventBuffer getContactEvents () {
+		return contactEvents;
+	}
+
+	private native void jniStepBuffered (long addr, float timeStep, int velocityIterations, int positionIterations,
+		boolean useDefaultFilter, ByteBuffer events, int capacity, int[] counts); /*
+		b2World* world = (b2World*)addr;
+		CustomContactFilter contactFilter(env, object);
+		BufferedContactListener contactListener((ContactEventRecord*)events, capacity);
+		world->SetContactFilter(useDefaultFilter ? &defaultFilter : &contactFilter);
+		world->SetContactListener(&contactListener);
+		world->Step( timeStep, velocityIterations, positionIterations );
+		world->SetContactFilter(&defaultFilter);
+		world->SetContactListener(0);
+		counts[0] = contactListener.count;
+		counts[1] = contactListener.dropped;
+	*/
+
+	private native void jniStepBufferedIndexed (long addr, float timeStep, int velocityIterations, int positionIterations,
+		boolean useDefaultFilter, ByteBuffer events, int capacity, int[] counts); /*
+		b2World* world = (b2World*)addr;
+		CustomContactFilter contactFilter(env, object, true);
+		BufferedContactListener contactListener((ContactEventRecord*)events, capacity, true);
+		world->SetContactFilter(useDefaultFilter ? &defaultFilter : &contactFilter);
+		world->SetContactListener(&contactListener);
+		world->Step( timeStep, velocityIterations, positionIterations );
+		world->SetContactFilter(&defaultFilter);
+		world->SetContactListener(0);
+		counts[0] = contactListener.count;
+		counts[1] = contactListener.dropped;
+	*/
+
 	/** Manually clear the force buffer on all bodies. By default, forces are cleared automatically after each call to Step. The
 	 * default behavior is modified by calling SetAutoClearForces. The purpose of this function is to support sub-stepping.
 	 * Sub-stepping is often used to maintain a fixed sized time step under a variable frame-rate. When you perform sub-stepping
@@ -750,7 +1191,10 @@ b2ContactFilter defaultFilter;
 	 * @param upperY the y coordinate of the upper right corner */
 	public void QueryAABB (QueryCallback callback, float lowerX, float lowerY, float upperX, float upperY) {
 		queryCallback = callback;
-		jniQueryAABB(addr, lowerX, lowerY, upperX, upperY);
+		if (indexLookup)
+			jniQueryAABBIndexed(addr, lowerX, lowerY, upperX, upperY);
+		else
+			jniQueryAABB(addr, lowerX, lowerY, upperX, upperY);
 	}
 
 	private QueryCallback queryCallback = null;;
@@ -765,6 +1209,16 @@ b2ContactFilter defaultFilter;
 		world->QueryAABB( &callback, aabb );
 	*/
 
+	private native void jniQueryAABBIndexed (long addr, float lowX, float lowY, float upX, float upY); /*
+		b2World* world = (b2World*)addr;
+		b2AABB aabb;
+		aabb.lowerBound = b2Vec2( lowX, lowY );
+		aabb.upperBound = b2Vec2( upX, upY );
+	
+		CustomQueryCallback callback( env, object, true );
+		world->QueryAABB( &callback, aabb );
+	*/
+
 //
 // /// Ray-cast the world for all fixtures in the path of the ray. Your callback
 // /// controls whether you get the closest point, any point, or n-points.
@@ -818,6 +1272,94 @@ b2ContactFilter defaultFilter;
 		return bodies.values();
 	}
 
+	/** Writes the transform of every body in the simulation with a single native call: position x, position y and angle, 3
+	 * floats per body, in the order of the native body list. The addresses of the bodies are written in the same order, so they
+	 * can be matched with {@link #getBodies()} if needed.
+	 * Its native is not in the prebuilt gdx library, it needs one built from these sources.
+	 * @param transforms array of at least 3 * {@link #getBodyCount()} floats
+	 * @param bodyAddrs array of at least {@link #getBodyCount()} longs, or null
+	 * @return the number of bodies written */
+	public int getBodyTransforms (float[] transforms, long[] bodyAddrs) {
+		int count = getBodyCount();
+		if (transforms.length < count * 3) throw new IllegalArgumentException("transforms too small for " + count + " bodies");
+		if (bodyAddrs != null && bodyAddrs.length < count)
+			throw new IllegalArgumentException("bodyAddrs too small for " + count + " bodies");
+		return jniGetAllBodyTransforms(addr, transforms, bodyAddrs != null ? bodyAddrs : tmpAddrs, bodyAddrs != null);
+	}
+
+	private native int jniGetAllBodyTransforms (long addr, float[] transforms, long[] bodyAddrs, boolean writeAddrs); /*
+		b2World* world = (b2World*)addr;
+		int i = 0;
+		for( b2Body* body = world->GetBodyList(); body != 0; body = body->GetNext(), i++ )
+		{
+			const b2Vec2& position = body->GetPosition();
+			transforms[i * 3] = position.x;
+			transforms[i * 3 + 1] = position.y;
+			transforms[i * 3 + 2] = body->GetAngle();
+			if( writeAddrs )
+				bodyAddrs[i] = (long long)body;
+		}
+		return i;
+	*/
+
+	/** Writes the transform of the passed bodies with a single native call: position x, position y and angle, 3 floats per
+	 * body, in the order of the array.
+	 * Its native is not in the prebuilt gdx library, it needs one built from these sources.
+	 * @param bodies the bodies to read
+	 * @param transforms array of at least 3 * bodies.size floats */
+	public void getBodyTransforms (Array<Body> bodies, float[] transforms) {
+		int count = prepareBodyAddrs(bodies);
+		if (transforms.length < count * 3) throw new IllegalArgumentException("transforms too small for " + count + " bodies");
+		jniGetBodyTransforms(tmpAddrs, count, transforms);
+	}
+
+	/** Same as {@link #getBodyTransforms(Array, float[])}, writing in a direct buffer, starting at its position. The position of
+	 * the buffer is not modified.
+	 * Its native is not in the prebuilt gdx library, it needs one built from these sources.
+	 * @param bodies the bodies to read
+	 * @param transforms direct buffer with at least 3 * bodies.size floats remaining */
+	public void getBodyTransforms (Array<Body> bodies, FloatBuffer transforms) {
+		if (!transforms.isDirect()) throw new IllegalArgumentException("transforms must be a direct buffer");
+		int count = prepareBodyAddrs(bodies);
+		if (transforms.remaining() < count * 3)
+			throw new IllegalArgumentException("transforms too small for " + count + " bodies");
+		jniGetBodyTransformsBuffer(tmpAddrs, count, transforms, transforms.position());
+	}
+
+	/** addresses of the bodies to read in the bulk methods, reused between calls **/
+	private long[] tmpAddrs = new long[100];
+
+	private int prepareBodyAddrs (Array<Body> bodies) {
+		int count = bodies.size;
+		if (tmpAddrs.length < count) tmpAddrs = new long[Math.max(count, tmpAddrs.length * 2)];
+		for (int i = 0; i < count; i++)
+			tmpAddrs[i] = bodies.get(i).addr;
+		return count;
+	}
+
+	private native void jniGetBodyTransforms (long[] bodyAddrs, int count, float[] transforms); /*
+		for( int i = 0; i < count; i++ )
+		{
+			b2Body* body = (b2Body*)bodyAddrs[i];
+			const b2Vec2& position = body->GetPosition();
+			transforms[i * 3] = position.x;
+			transforms[i * 3 + 1] = position.y;
+			transforms[i * 3 + 2] = body->GetAngle();
+		}
+	*/
+
+	private native void jniGetBodyTransformsBuffer (long[] bodyAddrs, int count, FloatBuffer transforms, int offset); /*
+		float* out = transforms + offset;
+		for( int i = 0; i < count; i++ )
+		{
+			b2Body* body = (b2Body*)bodyAddrs[i];
+			const b2Vec2& position = body->GetPosition();
+			out[i * 3] = position.x;
+			out[i * 3 + 1] = position.y;
+			out[i * 3 + 2] = body->GetAngle();
+		}
+	*/
+
 	/** @return all joints currently in the simulation */
 	public Iterator<Joint> getJoints () {
 		return joints.values();
@@ -844,16 +1386,26 @@ b2ContactFilter defaultFilter;
 		delete world;
 	*/
 
-	/** Internal method called from JNI in case a contact happens
+	/** Internal method called from JNI in case a contact happens, unless the contacts are filtered in native code, see
+	 * {@link #setNativeContactFilter(boolean)}
 	 * @param fixtureA
 	 * @param fixtureB
 	 * @return whether the things collided */
 	private boolean contactFilter (long fixtureA, long fixtureB) {
+		return shouldCollide(fixtures.get(fixtureA), fixtures.get(fixtureB));
+	}
+
+	/** Same as {@link #contactFilter(long, long)}, with the indexes of the fixtures, see {@link #setIndexLookup(boolean)} */
+	private boolean contactFilterIndex (int fixtureA, int fixtureB) {
+		return shouldCollide(fixtureSlots.get(fixtureA), fixtureSlots.get(fixtureB));
+	}
+
+	private boolean shouldCollide (Fixture fixtureA, Fixture fixtureB) {
 		if (contactFilter != null)
-			return contactFilter.shouldCollide(fixtures.get(fixtureA), fixtures.get(fixtureB));
+			return contactFilter.shouldCollide(fixtureA, fixtureB);
 		else {
-			Filter filterA = fixtures.get(fixtureA).getFilterData();
-			Filter filterB = fixtures.get(fixtureB).getFilterData();
+			Filter filterA = fixtureA.getFilterData();
+			Filter filterB = fixtureB.getFilterData();
 
 			if (filterA.groupIndex == filterB.groupIndex && filterA.groupIndex != 0) {
 				return filterA.groupIndex > 0;
@@ -897,6 +1449,13 @@ b2ContactFilter defaultFilter;
 			return false;
 	}
 
+	private boolean reportFixtureIndex (int index) {
+		if (queryCallback != null)
+			return queryCallback.reportFixture(fixtureSlots.get(index));
+		else
+			return false;
+	}
+
 	/** Sets the box2d velocity threshold globally, for all World instances.
 	 * @param threshold the threshold, default 1.0f */
 	public static native void setVelocityThreshold (float threshold); /*
@@ -914,7 +1473,10 @@ b2ContactFilter defaultFilter;
 	 * @param point2 the ray ending point */
 	public void rayCast (RayCastCallback callback, Vector2 point1, Vector2 point2) {
 		rayCastCallback = callback;
-		jniRayCast(addr, point1.x, point1.y, point2.x, point2.y);
+		if (indexLookup)
+			jniRayCastIndexed(addr, point1.x, point1.y, point2.x, point2.y);
+		else
+			jniRayCast(addr, point1.x, point1.y, point2.x, point2.y);
 	}
 
 	private RayCastCallback rayCastCallback = null;
@@ -925,16 +1487,30 @@ b2ContactFilter defaultFilter;
 		world->RayCast( &callback, b2Vec2(aX,aY), b2Vec2(bX,bY) );
 	*/
 
+	private native void jniRayCastIndexed (long addr, float aX, float aY, float bX, float bY); /*
+		b2World *world = (b2World*)addr;
+		CustomRayCastCallback callback( env, object, true );
+		world->RayCast( &callback, b2Vec2(aX,aY), b2Vec2(bX,bY) );
+	*/
+
 	private Vector2 rayPoint = new Vector2();
 	private Vector2 rayNormal = new Vector2();
 
 	private float reportRayFixture (long addr, float pX, float pY, float nX, float nY, float fraction) {
+		return reportRayFixture(fixtures.get(addr), pX, pY, nX, nY, fraction);
+	}
+
+	private float reportRayFixtureIndex (int index, float pX, float pY, float nX, float nY, float fraction) {
+		return reportRayFixture(fixtureSlots.get(index), pX, pY, nX, nY, fraction);
+	}
+
+	private float reportRayFixture (Fixture fixture, float pX, float pY, float nX, float nY, float fraction) {
 		if (rayCastCallback != null) {
 			rayPoint.x = pX;
 			rayPoint.y = pY;
 			rayNormal.x = nX;
 			rayNormal.y = nY;
-			return rayCastCallback.reportRayFixture(fixtures.get(addr), rayPoint, rayNormal, fraction);
+			return rayCastCallback.reportRayFixture(fixture, rayPoint, rayNormal, fraction);
 		} else {
 			return 0.0f;
 		}
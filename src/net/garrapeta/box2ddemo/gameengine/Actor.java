@@ -1,7 +1,9 @@
 package net.garrapeta.box2ddemo.gameengine;
 
-import android.graphics.Canvas;
-import android.graphics.Paint;
+import net.garrapeta.box2ddemo.gameengine.render.CircleBatch;
+import net.garrapeta.box2ddemo.gameengine.render.Renderer;
+
+import com.badlogic.gdx.physics.box2d.Body;
 
 /**
  * Interface of actor.
@@ -11,10 +13,124 @@ import android.graphics.Paint;
 public interface Actor {
 
     /**
-     * Draw the actor in the passed canvas
-     * @param canvas
-     * @param paint
+     * Lifecycle of an actor:
+     * SPAWNED when created, ALIVE when added to the world, PENDING_DESTROY when removed
+     * from the world but with its body still waiting to be destroyed, and DESTROYED when
+     * its body has been destroyed.
+     */
+    public enum State {
+        SPAWNED, ALIVE, PENDING_DESTROY, DESTROYED
+    }
+
+    /**
+     * @return the state of the actor in its lifecycle
+     */
+    public State getState();
+
+    /**
+     * Sets the state of the actor in its lifecycle. Only to be called by the GameWorld.
+     * @param state
+     */
+    public void setState(State state);
+
+    /**
+     * @return how many times the actor has become ALIVE. Tells apart the lives of an
+     * actor spawned from a pool several times.
+     */
+    public int getGeneration();
+
+    /**
+     * @return the position of the actor in the list of actors of the world.
+     * Only to be used by the GameWorld.
+     */
+    public int getWorldIndex();
+
+    /**
+     * Sets the position of the actor in the list of actors of the world, so the world can
+     * remove it without looking for it. Only to be called by the GameWorld.
+     * @param index
+     */
+    public void setWorldIndex(int index);
+
+    /**
+     * @return the pool the actor was spawned from, or null if it was not
+     */
+    public ActorPool<?> getPool();
+
+    /**
+     * Sets the pool the actor goes back to when removed. Only to be called by the ActorPool.
+     * @param pool
+     */
+    public void setPool(ActorPool<?> pool);
+
+    /**
+     * Called by the world when the actor is added, from the game loop thread (or before the
+     * game loop starts). The actor has to capture here what it needs to be drawn, since with
+     * decoupled rendering it is drawn from the render thread, that must not touch its body.
+     */
+    public void captureDrawData();
+
+    /**
+     * Draw the actor with the passed renderer
+     * @param renderer
+     */
+    public void draw(Renderer renderer);
+
+    /**
+     * Draw the actor with the passed renderer, at the passed transform instead of its
+     * current one. Used to draw the actor from a snapshot, when the physics and the
+     * drawing run in different threads.
+     * @param renderer
+     * @param worldX
+     * @param worldY
+     * @param angle, in radians
+     */
+    public void draw(Renderer renderer, float worldX, float worldY, float angle);
+
+    /**
+     * Writes the world transform the actor has to be drawn at (interpolated, if
+     * the world interpolates) in the passed array: x, y and angle, in radians.
+     * @param transform
+     * @param offset of the first float to write
+     */
+    public void getTransform(float[] transform, int offset);
+
+    /**
+     * Called before each physical step when the world interpolates the drawing.
+     * The actor should keep its current physical state, to be blended with the next one.
+     * @see GameWorld#getInterpolationAlpha()
+     */
+    public void storePreviousState();
+
+    /**
+     * @return the physical body of the actor, or null if it has none
+     */
+    public Body getBody();
+
+    /**
+     * Called by the world after the physical simulation with the new transform of the
+     * body, read in bulk for all the actors. Actors without body are not called.
+     * @param worldX
+     * @param worldY
+     * @param angle, in radians
+     */
+    public void updateTransform(float worldX, float worldY, float angle);
+
+    /**
+     * @return radius, in world units, of a circle centered at the actor position that
+     * contains all of it whatever its angle. Used to skip drawing actors out of the screen.
+     * Float.POSITIVE_INFINITY if unknown.
+     */
+    public float getBoundingRadius();
+
+    /**
+     * Adds the actor to the batch of circles, at the passed transform, if it can be drawn that way
+     * @param batch
+     * @param worldX
+     * @param worldY
+     * @param angle, in radians
+     * @return false if the actor cannot be drawn in the batch, and has to be drawn normally
      */
-    public void draw(Canvas canvas, Paint paint);
+    public boolean drawBatched(CircleBatch batch, float worldX, float worldY, float angle);
 
 }
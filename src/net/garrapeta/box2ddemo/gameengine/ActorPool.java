@@ -0,0 +1,91 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Pool of actors of one type, with their bodies and fixtures already created.
+ *
+ * Creating an actor costs several JNI calls and native allocations (body, shapes, fixtures).
+ * Actors spawned with GameWorld.spawnActor() are not destroyed when removed: their body is
+ * deactivated, so it leaves the simulation, and kept in the pool. Spawning them again
+ * just moves the body and activates it.
+ *
+ * To be used only from the game loop thread, out of the physical step.
+ *
+ * @param <T> type of the actors
+ */
+public abstract class ActorPool<T extends Actor> {
+
+    /** Maximum number of free actors kept. The bodies of the ones beyond it are destroyed */
+    private final int mMax;
+
+    private final Array<T> mFreeActors;
+
+    public ActorPool() {
+        this(16, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param initialCapacity
+     * @param max number of free actors kept
+     */
+    public ActorPool(int initialCapacity, int max) {
+        mFreeActors = new Array<T>(false, initialCapacity);
+        mMax = max;
+    }
+
+    /**
+     * Creates a new actor, with its body and fixtures. It will be moved to where it is spawned.
+     * @return the actor
+     */
+    protected abstract T newActor();
+
+    /**
+     * @return the number of free actors in the pool
+     */
+    public int getFreeCount() {
+        return mFreeActors.size;
+    }
+
+    /**
+     * Destroys the bodies of the free actors and empties the pool
+     * @param world the Box2d world of the bodies
+     */
+    public void clear(World world) {
+        for (int i = 0; i < mFreeActors.size; i++) {
+            Body body = mFreeActors.get(i).getBody();
+            if (body != null) {
+                world.destroyBody(body);
+            }
+        }
+        mFreeActors.clear();
+    }
+
+    T obtain() {
+        T actor = mFreeActors.size == 0 ? newActor() : mFreeActors.pop();
+        actor.setPool(this);
+        return actor;
+    }
+
+    /**
+     * Takes back an actor removed from the world. Its body is deactivated, or destroyed
+     * if the pool is full.
+     * @param actor
+     * @param world the Box2d world of the body
+     */
+    @SuppressWarnings("unchecked")
+    void free(Actor actor, World world) {
+        Body body = actor.getBody();
+        if (mFreeActors.size < mMax) {
+            if (body != null) {
+                body.setActive(false);
+            }
+            mFreeActors.add((T) actor);
+        } else if (body != null) {
+            world.destroyBody(body);
+            actor.setPool(null);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Store of simple actors kept as parallel arrays of primitives, instead of as Actor objects.
+ * For games with thousands of simple things (circles and boxes of a color), where an object
+ * per thing and a virtual call to draw each of them would be too slow.
+ *
+ * The data of the actors is packed at the beginning of the arrays, so the world reads
+ * and draws them iterating over contiguous memory, without allocating. The transforms
+ * are interleaved (x, y, angle), as the Box2d world writes them with the bulk natives.
+ *
+ * The game refers to the actors by integer handles, that do not change when other
+ * actors are removed. The handle of a removed actor may be given to a new one.
+ *
+ * To be used only from the game loop thread, out of the physical step.
+ */
+public class ActorStore {
+
+    public static final byte KIND_CIRCLE = 0;
+    public static final byte KIND_BOX = 1;
+
+    /** Floats stored per actor in the transforms: x, y, angle */
+    public static final int TRANSFORM_SIZE = 3;
+
+    /** Floats stored per actor in the sizes: radius, or half width and half height */
+    public static final int SIZE_SIZE = 2;
+
+    private final World mWorld;
+
+    /** Shapes of the fixtures */
+    private final ShapeCache mShapes;
+
+    /** Bodies of the actors, by index */
+    private final Array<Body> mBodies = new Array<Body>(true, 16);
+
+    /** World transforms after the last physical step, by index */
+    private float[] mTransforms = new float[16 * TRANSFORM_SIZE];
+
+    /** World transforms before the last physical step, by index */
+    private float[] mPreviousTransforms = new float[16 * TRANSFORM_SIZE];
+
+    /** Interpolated transforms, to be drawn */
+    private float[] mDrawTransforms = new float[16 * TRANSFORM_SIZE];
+
+    private float[] mSizes = new float[16 * SIZE_SIZE];
+    private int[] mColors = new int[16];
+    private byte[] mKinds = new byte[16];
+
+    /** Handle of the actor at each index */
+    private int[] mIndexToHandle = new int[16];
+
+    /** Index of the actor of each handle, -1 for free handles */
+    private int[] mHandleToIndex = new int[0];
+
+    /** Handles free to be reused, as a stack */
+    private int[] mFreeHandles = new int[0];
+    private int mFreeCount;
+
+    /** Number of actors */
+    private int mCount;
+
+    /** Definitions of the bodies created in bulk, and the shapes and radiuses they use, reused between calls */
+    private float[] mBulkFloats = new float[0];
+    private int[] mBulkInts = new int[0];
+    private Shape[] mBulkShapes = new Shape[4];
+    private float[] mBulkRadiuses = new float[4];
+    private final Array<Body> mBulkBodies = new Array<Body>(false, 16);
+
+    /** Bodies of the removed actors, to be destroyed out of the physical step */
+    private final Array<Body> mPendingBodies = new Array<Body>(false, 16);
+
+    /** Whether the Box2d natives that work on many bodies at once are used */
+    private boolean mBulkNatives = false;
+
+    /**
+     * Constructor
+     * @param world where the bodies of the actors are created
+     * @param shapes cache of the shapes of their fixtures
+     */
+    public ActorStore(World world, ShapeCache shapes) {
+        mWorld = world;
+        mShapes = shapes;
+    }
+
+    /**
+     * Enables or disables the Box2d natives that read the transforms of, or create, many
+     * bodies with one call. See GameWorld.setBulkNatives()
+     * @param enabled
+     */
+    void setBulkNatives(boolean enabled) {
+        mBulkNatives = enabled;
+    }
+
+    /**
+     * Creates a circle actor
+     * @param x
+     * @param y
+     * @param radius
+     * @param dynamic whether the body is dynamic or static
+     * @param color
+     * @return the handle of the actor
+     */
+    public int addCircle(float x, float y, float radius, boolean dynamic, int color) {
+        Body body = createBody(x, y, dynamic);
+        body.createFixture(mShapes.getCircle(radius), 1.0f);
+        return add(body, x, y, KIND_CIRCLE, radius, radius, color);
+    }
+
+    /**
+     * Creates many circle actors at once, with a single native call for all their bodies
+     * and fixtures if the bulk natives are used, or one by one otherwise. Meant for loading levels.
+     * @param circles x, y and radius of each circle
+     * @param offset index of the first x
+     * @param count number of circles
+     * @param dynamic whether the bodies are dynamic or static
+     * @param color
+     * @param handles array where the handles of the actors are written, or null
+     * @param handlesOffset index of the first handle written
+     */
+    public void addCircles(float[] circles, int offset, int count, boolean dynamic, int color,
+            int[] handles, int handlesOffset) {
+        if (!mBulkNatives) {
+            for (int i = 0; i < count; i++) {
+                int c = offset + i * 3;
+                int handle = addCircle(circles[c], circles[c + 1], circles[c + 2], dynamic, color);
+                if (handles != null) {
+                    handles[handlesOffset + i] = handle;
+                }
+            }
+            return;
+        }
+
+        if (mBulkInts.length < count * World.BULK_BODY_INTS) {
+            mBulkFloats = new float[count * World.BULK_BODY_FLOATS];
+            mBulkInts = new int[count * World.BULK_BODY_INTS];
+        }
+        int type = dynamic ? BodyType.DynamicBody.getValue() : BodyType.StaticBody.getValue();
+        int shapeCount = 0;
+        for (int i = 0; i < count; i++) {
+            float radius = circles[offset + i * 3 + 2];
+            int shape = 0;
+            while (shape < shapeCount && mBulkRadiuses[shape] != radius) {
+                shape++;
+            }
+            if (shape == shapeCount) {
+                if (shapeCount == mBulkShapes.length) {
+                    Shape[] shapes = new Shape[shapeCount * 2];
+                    System.arraycopy(mBulkShapes, 0, shapes, 0, shapeCount);
+                    mBulkShapes = shapes;
+                    mBulkRadiuses = grow(mBulkRadiuses, shapeCount * 2);
+                }
+                mBulkShapes[shape] = mShapes.getCircle(radius);
+                mBulkRadiuses[shape] = radius;
+                shapeCount++;
+            }
+
+            // Same as the defaults of BodyDef and FixtureDef
+            int f = i * World.BULK_BODY_FLOATS;
+            mBulkFloats[f] = circles[offset + i * 3];
+            mBulkFloats[f + 1] = circles[offset + i * 3 + 1];
+            mBulkFloats[f + 2] = 0;
+            mBulkFloats[f + 3] = 0;
+            mBulkFloats[f + 4] = 0;
+            mBulkFloats[f + 5] = 1;
+            mBulkFloats[f + 6] = 1;
+            mBulkFloats[f + 7] = 0.2f;
+            mBulkFloats[f + 8] = 0;
+            int n = i * World.BULK_BODY_INTS;
+            mBulkInts[n] = type;
+            mBulkInts[n + 1] = World.BULK_ALLOW_SLEEP | World.BULK_AWAKE | World.BULK_ACTIVE;
+            mBulkInts[n + 2] = shape;
+        }
+        // Unused slots must not keep shapes of previous calls
+        for (int i = shapeCount; i < mBulkShapes.length; i++) {
+            mBulkShapes[i] = null;
+        }
+
+        mWorld.createBodies(mBulkFloats, mBulkInts, mBulkShapes, count, mBulkBodies);
+        for (int i = 0; i < count; i++) {
+            float radius = circles[offset + i * 3 + 2];
+            int handle = add(mBulkBodies.get(i), circles[offset + i * 3], circles[offset + i * 3 + 1],
+                    KIND_CIRCLE, radius, radius, color);
+            if (handles != null) {
+                handles[handlesOffset + i] = handle;
+            }
+        }
+        mBulkBodies.clear();
+    }
+
+    /**
+     * Creates a box actor
+     * @param x
+     * @param y
+     * @param halfWidth
+     * @param halfHeight
+     * @param dynamic whether the body is dynamic or static
+     * @param color
+     * @return the handle of the actor
+     */
+    public int addBox(float x, float y, float halfWidth, float halfHeight, boolean dynamic, int color) {
+        Body body = createBody(x, y, dynamic);
+        body.createFixture(mShapes.getBox(halfWidth, halfHeight), 1.0f);
+        return add(body, x, y, KIND_BOX, halfWidth, halfHeight, color);
+    }
+
+    /**
+     * Removes an actor. Its body is destroyed later, at the same point of the game loop
+     * as the bodies of the removed actors, so it can be called during the physical step.
+     * @param handle
+     */
+    public void remove(int handle) {
+        int index = indexOf(handle);
+        mPendingBodies.add(mBodies.get(index));
+
+        // The last actor takes its place, so the arrays stay packed
+        int last = mCount - 1;
+        if (index != last) {
+            mBodies.set(index, mBodies.get(last));
+            System.arraycopy(mTransforms, last * TRANSFORM_SIZE, mTransforms, index * TRANSFORM_SIZE, TRANSFORM_SIZE);
+            System.arraycopy(mPreviousTransforms, last * TRANSFORM_SIZE, mPreviousTransforms, index * TRANSFORM_SIZE, TRANSFORM_SIZE);
+            System.arraycopy(mSizes, last * SIZE_SIZE, mSizes, index * SIZE_SIZE, SIZE_SIZE);
+            mColors[index] = mColors[last];
+            mKinds[index] = mKinds[last];
+            int movedHandle = mIndexToHandle[last];
+            mIndexToHandle[index] = movedHandle;
+            mHandleToIndex[movedHandle] = index;
+        }
+        mBodies.removeIndex(last);
+        mCount--;
+
+        mHandleToIndex[handle] = -1;
+        mFreeHandles[mFreeCount++] = handle;
+    }
+
+    /**
+     * Destroys the bodies of the actors removed since the last call.
+     * Called by the world out of the physical step.
+     */
+    void destroyPendingBodies() {
+        for (int i = 0; i < mPendingBodies.size; i++) {
+            mWorld.destroyBody(mPendingBodies.get(i));
+        }
+        mPendingBodies.clear();
+    }
+
+    /**
+     * @param handle
+     * @return if the handle belongs to an actor of the store
+     */
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < mHandleToIndex.length && mHandleToIndex[handle] >= 0;
+    }
+
+    /**
+     * @param handle
+     * @return the current index of the actor in the arrays. It changes when actors are removed.
+     */
+    public int indexOf(int handle) {
+        if (!contains(handle)) {
+            throw new IllegalArgumentException("Not an actor of the store: " + handle);
+        }
+        return mHandleToIndex[handle];
+    }
+
+    /**
+     * @param index
+     * @return the handle of the actor at the index
+     */
+    public int getHandle(int index) {
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + mCount);
+        }
+        return mIndexToHandle[index];
+    }
+
+    /**
+     * @return the number of actors
+     */
+    public int size() {
+        return mCount;
+    }
+
+    public Body getBody(int handle) {
+        return mBodies.get(indexOf(handle));
+    }
+
+    public float getX(int handle) {
+        return mTransforms[indexOf(handle) * TRANSFORM_SIZE];
+    }
+
+    public float getY(int handle) {
+        return mTransforms[indexOf(handle) * TRANSFORM_SIZE + 1];
+    }
+
+    public float getAngle(int handle) {
+        return mTransforms[indexOf(handle) * TRANSFORM_SIZE + 2];
+    }
+
+    public int getColor(int handle) {
+        return mColors[indexOf(handle)];
+    }
+
+    public void setColor(int handle, int color) {
+        mColors[indexOf(handle)] = color;
+    }
+
+    /**
+     * @return the sizes of the actors, by index, SIZE_SIZE floats each
+     */
+    public float[] getSizes() {
+        return mSizes;
+    }
+
+    /**
+     * @return the colors of the actors, by index
+     */
+    public int[] getColors() {
+        return mColors;
+    }
+
+    /**
+     * @return the kinds of the actors, by index
+     */
+    public byte[] getKinds() {
+        return mKinds;
+    }
+
+    /**
+     * @return the transforms of the actors after the last physical step, by index,
+     * TRANSFORM_SIZE floats each
+     */
+    public float[] getTransforms() {
+        return mTransforms;
+    }
+
+    /**
+     * @param alpha how far we are between the previous and the last physical step, in [0, 1]
+     * @return the transforms of the actors to be drawn, by index, TRANSFORM_SIZE floats each
+     */
+    public float[] getDrawTransforms(float alpha) {
+        if (alpha >= 1) {
+            return mTransforms;
+        }
+        int length = mCount * TRANSFORM_SIZE;
+        for (int i = 0; i < length; i++) {
+            float previous = mPreviousTransforms[i];
+            mDrawTransforms[i] = previous + (mTransforms[i] - previous) * alpha;
+        }
+        return mDrawTransforms;
+    }
+
+    /**
+     * Reads the transforms of all the bodies, with one native call if the bulk natives are used
+     */
+    void readTransforms() {
+        if (mCount == 0) {
+            return;
+        }
+        if (mBulkNatives) {
+            mWorld.getBodyTransforms(mBodies, mTransforms);
+            return;
+        }
+        for (int i = 0; i < mCount; i++) {
+            Body body = mBodies.get(i);
+            Vector2 position = body.getPosition();
+            int offset = i * TRANSFORM_SIZE;
+            mTransforms[offset] = position.x;
+            mTransforms[offset + 1] = position.y;
+            mTransforms[offset + 2] = body.getAngle();
+        }
+    }
+
+    /**
+     * Keeps the transforms before a physical step, to be interpolated
+     */
+    void storePreviousTransforms() {
+        System.arraycopy(mTransforms, 0, mPreviousTransforms, 0, mCount * TRANSFORM_SIZE);
+    }
+
+    private Body createBody(float x, float y, boolean dynamic) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.position.set(x, y);
+        bodyDef.type = dynamic ? BodyType.DynamicBody : BodyType.StaticBody;
+        return mWorld.createBody(bodyDef);
+    }
+
+    private int add(Body body, float x, float y, byte kind, float width, float height, int color) {
+        ensureCapacity(mCount + 1);
+        int index = mCount++;
+        // Until the world updates it after the first step
+        int offset = index * TRANSFORM_SIZE;
+        mTransforms[offset] = x;
+        mTransforms[offset + 1] = y;
+        mTransforms[offset + 2] = 0;
+        System.arraycopy(mTransforms, offset, mPreviousTransforms, offset, TRANSFORM_SIZE);
+        mBodies.add(body);
+        mSizes[index * SIZE_SIZE] = width;
+        mSizes[index * SIZE_SIZE + 1] = height;
+        mColors[index] = color;
+        mKinds[index] = kind;
+
+        int handle;
+        if (mFreeCount > 0) {
+            handle = mFreeHandles[--mFreeCount];
+        } else {
+            handle = mHandleToIndex.length;
+            int[] handleToIndex = new int[Math.max(16, handle * 2)];
+            System.arraycopy(mHandleToIndex, 0, handleToIndex, 0, handle);
+            for (int i = handle + 1; i < handleToIndex.length; i++) {
+                handleToIndex[i] = -1;
+            }
+            mHandleToIndex = handleToIndex;
+            int[] freeHandles = new int[handleToIndex.length];
+            System.arraycopy(mFreeHandles, 0, freeHandles, 0, mFreeCount);
+            mFreeHandles = freeHandles;
+            // The rest of the new handles are free, the lowest on top of the stack
+            for (int i = handleToIndex.length - 1; i > handle; i--) {
+                mFreeHandles[mFreeCount++] = i;
+            }
+        }
+        mHandleToIndex[handle] = index;
+        mIndexToHandle[index] = handle;
+        return handle;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= mColors.length) {
+            return;
+        }
+        int capacity = Math.max(count, mColors.length * 2);
+        mTransforms = grow(mTransforms, capacity * TRANSFORM_SIZE);
+        mPreviousTransforms = grow(mPreviousTransforms, capacity * TRANSFORM_SIZE);
+        mDrawTransforms = new float[capacity * TRANSFORM_SIZE];
+        mSizes = grow(mSizes, capacity * SIZE_SIZE);
+        int[] colors = new int[capacity];
+        System.arraycopy(mColors, 0, colors, 0, mCount);
+        mColors = colors;
+        byte[] kinds = new byte[capacity];
+        System.arraycopy(mKinds, 0, kinds, 0, mCount);
+        mKinds = kinds;
+        int[] indexToHandle = new int[capacity];
+        System.arraycopy(mIndexToHandle, 0, indexToHandle, 0, mCount);
+        mIndexToHandle = indexToHandle;
+    }
+
+    private float[] grow(float[] array, int length) {
+        float[] grown = new float[length];
+        System.arraycopy(array, 0, grown, 0, Math.min(array.length, length));
+        return grown;
+    }
+}
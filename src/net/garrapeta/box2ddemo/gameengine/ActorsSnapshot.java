@@ -0,0 +1,132 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+/**
+ * State of the actors at one moment of the game, as needed to draw them:
+ * the actors and their world transforms.
+ * 
+ * Snapshots are filled by the physics thread and drawn by the render thread, so
+ * the render thread never has to read the state of the bodies while they are simulated.
+ * Instances are reused, so filling them does not allocate once they have grown enough.
+ */
+public class ActorsSnapshot {
+
+    /** Floats stored per actor: x, y, angle */
+    public static final int TRANSFORM_SIZE = 3;
+
+    private Actor[] mActors = new Actor[16];
+
+    /** World transforms of the actors, TRANSFORM_SIZE floats each */
+    private float[] mTransforms = new float[16 * TRANSFORM_SIZE];
+
+    /** Number of actors */
+    private int mCount = 0;
+
+    /** Frame of the game loop the snapshot was taken at */
+    private long mFrame = 0;
+
+    /** Copy of the actors of the ActorStore, with their transforms to be drawn */
+    private int mStoreCount = 0;
+    private float[] mStoreTransforms = new float[0];
+    private float[] mStoreSizes = new float[0];
+    private int[] mStoreColors = new int[0];
+    private byte[] mStoreKinds = new byte[0];
+
+    /**
+     * Empties the snapshot
+     */
+    public void clear() {
+        for (int i = 0; i < mCount; i++) {
+            mActors[i] = null;
+        }
+        mCount = 0;
+    }
+
+    /**
+     * Adds an actor at its current transform
+     * @param actor
+     */
+    public void add(Actor actor) {
+        if (mCount == mActors.length) {
+            Actor[] actors = new Actor[mCount * 2];
+            System.arraycopy(mActors, 0, actors, 0, mCount);
+            mActors = actors;
+            float[] transforms = new float[actors.length * TRANSFORM_SIZE];
+            System.arraycopy(mTransforms, 0, transforms, 0, mCount * TRANSFORM_SIZE);
+            mTransforms = transforms;
+        }
+        mActors[mCount] = actor;
+        actor.getTransform(mTransforms, mCount * TRANSFORM_SIZE);
+        mCount++;
+    }
+
+    public void setFrame(long frame) {
+        mFrame = frame;
+    }
+
+    public long getFrame() {
+        return mFrame;
+    }
+
+    /**
+     * Copies the actors of the store, as they have to be drawn
+     * @param store
+     * @param alpha interpolation between the previous and the last physical step
+     */
+    public void setStore(ActorStore store, float alpha) {
+        int count = store.size();
+        if (mStoreColors.length < count) {
+            int capacity = Math.max(16, count * 2);
+            mStoreTransforms = new float[capacity * ActorStore.TRANSFORM_SIZE];
+            mStoreSizes = new float[capacity * ActorStore.SIZE_SIZE];
+            mStoreColors = new int[capacity];
+            mStoreKinds = new byte[capacity];
+        }
+        System.arraycopy(store.getDrawTransforms(alpha), 0, mStoreTransforms, 0, count * ActorStore.TRANSFORM_SIZE);
+        System.arraycopy(store.getSizes(), 0, mStoreSizes, 0, count * ActorStore.SIZE_SIZE);
+        System.arraycopy(store.getColors(), 0, mStoreColors, 0, count);
+        System.arraycopy(store.getKinds(), 0, mStoreKinds, 0, count);
+        mStoreCount = count;
+    }
+
+    public int getStoreCount() {
+        return mStoreCount;
+    }
+
+    public float[] getStoreTransforms() {
+        return mStoreTransforms;
+    }
+
+    public float[] getStoreSizes() {
+        return mStoreSizes;
+    }
+
+    public int[] getStoreColors() {
+        return mStoreColors;
+    }
+
+    public byte[] getStoreKinds() {
+        return mStoreKinds;
+    }
+
+    /**
+     * @return the number of actors
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @param index
+     * @return the actor
+     */
+    public Actor getActor(int index) {
+        return mActors[index];
+    }
+
+    /**
+     * @return the transforms of the actors, TRANSFORM_SIZE floats each
+     */
+    public float[] getTransforms() {
+        return mTransforms;
+    }
+}
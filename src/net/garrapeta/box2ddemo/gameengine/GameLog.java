@@ -0,0 +1,53 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import android.util.Log;
+
+/**
+ * Log of the engine.
+ * In Android it writes to android.util.Log. Out of Android (plain JVM) the
+ * verbose and debug traces are discarded and the rest go to the standard output.
+ */
+public final class GameLog {
+
+    /** Whether we are running in Android */
+    private static final boolean ANDROID = "Dalvik".equals(System.getProperty("java.vm.name"));
+
+    private GameLog() {
+    }
+
+    public static void v(String tag, String msg) {
+        if (ANDROID) {
+            Log.v(tag, msg);
+        }
+    }
+
+    public static void d(String tag, String msg) {
+        if (ANDROID) {
+            Log.d(tag, msg);
+        }
+    }
+
+    public static void i(String tag, String msg) {
+        if (ANDROID) {
+            Log.i(tag, msg);
+        } else {
+            System.out.println("I/" + tag + ": " + msg);
+        }
+    }
+
+    public static void w(String tag, String msg) {
+        if (ANDROID) {
+            Log.w(tag, msg);
+        } else {
+            System.out.println("W/" + tag + ": " + msg);
+        }
+    }
+
+    public static void e(String tag, String msg) {
+        if (ANDROID) {
+            Log.e(tag, msg);
+        } else {
+            System.err.println("E/" + tag + ": " + msg);
+        }
+    }
+}
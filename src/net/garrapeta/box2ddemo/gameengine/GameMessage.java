@@ -1,5 +1,7 @@
 package net.garrapeta.box2ddemo.gameengine;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * Message to be processed at a certain stage in the Game Loop.
  * 
@@ -12,6 +14,15 @@ package net.garrapeta.box2ddemo.gameengine;
 public abstract class GameMessage {
 
     private int mPriority;
+
+    /** Next message in the lane of the GameMessageQueue this message is posted to */
+    GameMessage mNext;
+
+    /** 1 while the message is posted and not processed yet, 0 otherwise */
+    private volatile int mQueued;
+
+    private static final AtomicIntegerFieldUpdater<GameMessage> QUEUED =
+            AtomicIntegerFieldUpdater.newUpdater(GameMessage.class, "mQueued");
     
     static final int MESSAGE_PRIORITY_DEFAULT = 0;
     static final int MESSAGE_PRIORITY_MAX = Integer.MIN_VALUE;
@@ -27,7 +38,37 @@ public abstract class GameMessage {
     final int getPriority() {
         return mPriority;
     }
+
+    /**
+     * Marks the message as posted
+     * @throws IllegalStateException if it is already posted and not processed yet
+     */
+    final void markQueued() {
+        if (!QUEUED.compareAndSet(this, 0, 1)) {
+            throw new IllegalStateException("Message already posted: " + this);
+        }
+    }
+
+    /**
+     * Marks the message as no longer posted, so it can be posted again
+     */
+    final void clearQueued() {
+        mQueued = 0;
+    }
     
+    /**
+     * Called by the queue after the message has been processed
+     */
+    void onProcessed() {
+    }
+
+    /**
+     * Called by the queue when the message is replaced in a coalescing channel,
+     * so it will not be processed
+     */
+    void onDiscarded() {
+    }
+
     /**
      * To be implemented by subclasses.
      * @param world
@@ -0,0 +1,125 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Pool of messages of one type.
+ * 
+ * Messages are usually obtained in one thread (UI, sensors) and freed in the game loop
+ * thread after being processed, so obtaining and freeing are synchronized.
+ * 
+ * In debug mode the pool checks that messages are not freed twice, and reports the
+ * messages that have been obtained for too long without being freed (leaked),
+ * with the stack trace of where they were obtained.
+ *
+ * @param <T> type of the messages
+ */
+public abstract class GameMessagePool<T extends PooledGameMessage> extends Pool<T> {
+
+    /** Default age after which an obtained message is considered leaked, in ns */
+    public static final long DEFAULT_LEAK_AGE = 5000000000L;
+
+    /** Whether the debug checks are enabled */
+    private boolean mDebug = false;
+
+    /** Age after which an obtained message is considered leaked, in ns */
+    private long mLeakAge = DEFAULT_LEAK_AGE;
+
+    /** Messages obtained and not freed yet. Only in debug mode */
+    private final Map<T, Boolean> mObtained = new IdentityHashMap<T, Boolean>();
+
+    public GameMessagePool() {
+        super();
+    }
+
+    public GameMessagePool(int initialCapacity, int max) {
+        super(initialCapacity, max);
+    }
+
+    /**
+     * Enables or disables the debug checks.
+     * They are slow, and allocate, so they should not be enabled in production.
+     * @param debug
+     */
+    public synchronized void setDebug(boolean debug) {
+        mDebug = debug;
+        mObtained.clear();
+    }
+
+    /**
+     * @param leakAge, age after which an obtained message is considered leaked, in ns
+     */
+    public synchronized void setLeakAge(long leakAge) {
+        mLeakAge = leakAge;
+    }
+
+    @Override
+    public synchronized T obtain() {
+        T message = super.obtain();
+        message.mPool = this;
+        message.mFree = false;
+        if (mDebug) {
+            checkLeaks();
+            message.mObtainTime = System.nanoTime();
+            message.mObtainTrace = new Throwable("Message obtained here");
+            mObtained.put(message, Boolean.TRUE);
+        }
+        return message;
+    }
+
+    @Override
+    public synchronized void free(T message) {
+        if (mDebug) {
+            if (message.mFree || message.mPool != this) {
+                throw new IllegalStateException("Message freed twice or in a wrong pool: " + message);
+            }
+            mObtained.remove(message);
+            message.mObtainTrace = null;
+        }
+        message.mFree = true;
+        super.free(message);
+    }
+
+    @Override
+    public void free(Array<T> messages) {
+        for (int i = 0; i < messages.size; i++) {
+            free(messages.get(i));
+        }
+    }
+
+    /**
+     * @return the number of messages obtained and not freed yet. Only tracked in debug mode
+     */
+    public synchronized int getObtainedCount() {
+        return mObtained.size();
+    }
+
+    /**
+     * Reports the messages obtained longer than the leak age ago. Only in debug mode.
+     * Every leaked message is reported once.
+     * @return number of leaks found
+     */
+    public synchronized int checkLeaks() {
+        int leaks = 0;
+        long now = System.nanoTime();
+        for (T message : mObtained.keySet()) {
+            if (message.mObtainTrace != null && now - message.mObtainTime > mLeakAge) {
+                new IllegalStateException("Message leaked, never processed nor freed: " + message,
+                        message.mObtainTrace).printStackTrace();
+                // Reported, we do not want to hear about it again
+                message.mObtainTrace = null;
+                leaks++;
+            }
+        }
+        return leaks;
+    }
+
+    @SuppressWarnings("unchecked")
+    void freeMessage(PooledGameMessage message) {
+        free((T) message);
+    }
+}
@@ -0,0 +1,250 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Queue of messages, posted from any thread and processed by the game loop thread.
+ * 
+ * It is lock-free and it does not allocate, neither when posting nor when processing:
+ * - There is one lane per priority. The lanes are sorted by priority, so posting
+ *   does not need to look for the place of the message.
+ * - Each lane is a stack linked through the messages themselves. Producers push
+ *   with a compare and set, and the consumer takes the whole lane at once and
+ *   reverses it, so the messages of a priority are processed in posting order.
+ * 
+ * Only the first message of a new priority creates its lane.
+ * A message cannot be posted again until it has been processed: that would link it to
+ * itself, so posting it throws an IllegalStateException.
+ * Pooled messages go back to their pool after being processed.
+ * 
+ * Messages can also be posted to a coalescing channel, that holds only the newest one:
+ * a message posted while the previous one of the channel is pending replaces it.
+ * For high frequency input, like sensors or pointer moves, where only the last value matters.
+ */
+public class GameMessageQueue {
+
+    /** Lanes, sorted by priority. Replaced (never modified) when a lane is added */
+    private final AtomicReference<Lane[]> mLanes = new AtomicReference<Lane[]>(new Lane[] {
+            new Lane(GameMessage.MESSAGE_PRIORITY_MAX), new Lane(GameMessage.MESSAGE_PRIORITY_DEFAULT) });
+
+    /** Coalescing channels, indexed by channel number. Replaced (never modified) when one is added */
+    private final AtomicReference<Channel[]> mChannels = new AtomicReference<Channel[]>(new Channel[0]);
+
+    /** Messages taken from each lane, in posting order. Only used by the consumer */
+    private GameMessage[] mTaken = new GameMessage[2];
+
+    /**
+     * Enqueues a message. Can be called from any thread.
+     * @param message
+     * @throws IllegalStateException if the message is already posted and not processed yet
+     */
+    public void post(GameMessage message) {
+        message.markQueued();
+        AtomicReference<GameMessage> head = getLane(message.getPriority()).mHead;
+        GameMessage top;
+        do {
+            top = head.get();
+            message.mNext = top;
+        } while (!head.compareAndSet(top, message));
+    }
+
+    /**
+     * Enqueues a message in a coalescing channel, replacing the message of the channel that is
+     * still pending, if any. The replaced message is discarded without being processed (pooled
+     * messages go back to their pool). Can be called from any thread.
+     * 
+     * The channel is processed with the priority of the first message posted to it.
+     * @param channel small non negative number, chosen by the game
+     * @param message
+     * @throws IllegalStateException if the message is already posted and not processed yet
+     */
+    public void postCoalescing(int channel, GameMessage message) {
+        message.markQueued();
+        Channel c = getChannel(channel, message.getPriority());
+        GameMessage replaced = c.mPending.getAndSet(message);
+        if (replaced == null) {
+            // The channel was empty, so it is not in its lane
+            post(c);
+        } else {
+            replaced.clearQueued();
+            replaced.onDiscarded();
+        }
+    }
+
+    /**
+     * Processes all the messages posted until now, by priority.
+     * The messages posted while processing are left for the next call.
+     * To be called only from the consumer thread.
+     * @param world
+     * @return the number of messages processed
+     */
+    public int processAll(GameWorld world) {
+        Lane[] lanes = mLanes.get();
+        if (mTaken.length < lanes.length) {
+            mTaken = new GameMessage[lanes.length];
+        }
+
+        // First we take all the lanes, so what is posted while processing waits for the next call
+        for (int i = 0; i < lanes.length; i++) {
+            mTaken[i] = reverse(lanes[i].mHead.getAndSet(null));
+        }
+
+        int processed = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            GameMessage message = mTaken[i];
+            mTaken[i] = null;
+            while (message != null) {
+                GameMessage next = message.mNext;
+                // Unlinked before processing, so it can be posted again from process()
+                message.mNext = null;
+                message.clearQueued();
+                message.process(world);
+                message.onProcessed();
+                processed++;
+                message = next;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * @return if there are no messages waiting
+     */
+    public boolean isEmpty() {
+        for (Lane lane : mLanes.get()) {
+            if (lane.mHead.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param priority
+     * @return the lane of the priority, created if needed
+     */
+    private Lane getLane(int priority) {
+        while (true) {
+            Lane[] lanes = mLanes.get();
+            int index = search(lanes, priority);
+            if (index >= 0) {
+                return lanes[index];
+            }
+
+            // New priority, we add a lane keeping them sorted
+            int insertion = - (index + 1);
+            Lane[] newLanes = new Lane[lanes.length + 1];
+            System.arraycopy(lanes, 0, newLanes, 0, insertion);
+            newLanes[insertion] = new Lane(priority);
+            System.arraycopy(lanes, insertion, newLanes, insertion + 1, lanes.length - insertion);
+            if (mLanes.compareAndSet(lanes, newLanes)) {
+                return newLanes[insertion];
+            }
+            // Other producer changed the lanes meanwhile, try again
+        }
+    }
+
+    /**
+     * @param channel
+     * @param priority of the channel, if it has to be created
+     * @return the channel, created if needed
+     */
+    private Channel getChannel(int channel, int priority) {
+        if (channel < 0) {
+            throw new IllegalArgumentException("Channel must not be negative: " + channel);
+        }
+        while (true) {
+            Channel[] channels = mChannels.get();
+            if (channel < channels.length && channels[channel] != null) {
+                return channels[channel];
+            }
+
+            Channel[] newChannels = new Channel[Math.max(channels.length, channel + 1)];
+            System.arraycopy(channels, 0, newChannels, 0, channels.length);
+            newChannels[channel] = new Channel(priority);
+            if (mChannels.compareAndSet(channels, newChannels)) {
+                return newChannels[channel];
+            }
+            // Other producer changed the channels meanwhile, try again
+        }
+    }
+
+    /**
+     * Binary search of a lane
+     * @param lanes
+     * @param priority
+     * @return the index of the lane, or (-(insertion point) - 1) if not found
+     */
+    private static int search(Lane[] lanes, int priority) {
+        int low = 0;
+        int high = lanes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midPriority = lanes[mid].mPriority;
+            if (midPriority < priority) {
+                low = mid + 1;
+            } else if (midPriority > priority) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return - (low + 1);
+    }
+
+    /**
+     * Reverses a list of messages linked through mNext
+     * @param message first of the list
+     * @return first of the reversed list
+     */
+    private static GameMessage reverse(GameMessage message) {
+        GameMessage reversed = null;
+        while (message != null) {
+            GameMessage next = message.mNext;
+            message.mNext = reversed;
+            reversed = message;
+            message = next;
+        }
+        return reversed;
+    }
+
+    /**
+     * Messages of one priority
+     */
+    private static class Lane {
+
+        private final int mPriority;
+
+        /** Last message posted. The stack is linked through GameMessage.mNext */
+        private final AtomicReference<GameMessage> mHead = new AtomicReference<GameMessage>();
+
+        private Lane(int priority) {
+            mPriority = priority;
+        }
+    }
+
+    /**
+     * Coalescing channel. It is posted to its lane when it gets a message while empty,
+     * and when processed it processes the newest message it got.
+     */
+    private static class Channel extends GameMessage {
+
+        /** Newest message posted to the channel, not processed yet */
+        private final AtomicReference<GameMessage> mPending = new AtomicReference<GameMessage>();
+
+        Channel(int priority) {
+            super(priority);
+        }
+
+        @Override
+        public void process(GameWorld world) {
+            // Emptied before processing, so what is posted meanwhile posts the channel again
+            GameMessage message = mPending.getAndSet(null);
+            if (message != null) {
+                message.clearQueued();
+                message.process(world);
+                message.onProcessed();
+            }
+        }
+    }
+}
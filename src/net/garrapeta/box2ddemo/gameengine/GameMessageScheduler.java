@@ -0,0 +1,161 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+/**
+ * Messages waiting for a future game time, kept in a binary min-heap ordered by due time
+ * and then by priority. Scheduling and cancelling are O(log n), and checking if there is
+ * something due is O(1), so waiting messages cost nothing until they are due.
+ * 
+ * The game loop posts the due messages to the GameMessageQueue, where they are
+ * processed with the rest. A periodic message is scheduled again right away, so
+ * it is posted at most once per frame even if several periods have elapsed.
+ */
+class GameMessageScheduler {
+
+    private ScheduledMessage[] mHeap = new ScheduledMessage[16];
+    private int mSize;
+    private long mSequence;
+
+    /**
+     * Schedules a message
+     * @param message
+     * @param dueTime game time it is due at, in nanoseconds
+     * @param period interval between repetitions, in nanoseconds, or 0 to post it only once
+     * @return the handle of the scheduled message
+     */
+    synchronized ScheduledMessage schedule(GameMessage message, long dueTime, long period) {
+        ScheduledMessage scheduled = new ScheduledMessage(this, message, dueTime, period);
+        add(scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Removes a message from the heap
+     * @param scheduled
+     * @return if it was scheduled
+     */
+    synchronized boolean cancel(ScheduledMessage scheduled) {
+        int index = scheduled.mHeapIndex;
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        // It will not be processed, so pooled messages go back to their pool
+        scheduled.mMessage.onDiscarded();
+        return true;
+    }
+
+    /**
+     * Posts the messages due at the passed game time, and reschedules the periodic ones
+     * @param now game time, in nanoseconds
+     * @param queue
+     * @return the number of messages posted
+     */
+    synchronized int postDue(long now, GameMessageQueue queue) {
+        int posted = 0;
+        while (mSize > 0 && mHeap[0].mDueTime <= now) {
+            ScheduledMessage scheduled = mHeap[0];
+            removeAt(0);
+            queue.post(scheduled.mMessage);
+            posted++;
+            if (scheduled.mPeriod > 0) {
+                // Missed periods are skipped, instead of posted in a burst
+                long due = scheduled.mDueTime + scheduled.mPeriod;
+                if (due <= now) {
+                    due += ((now - due) / scheduled.mPeriod + 1) * scheduled.mPeriod;
+                }
+                scheduled.mDueTime = due;
+                add(scheduled);
+            }
+        }
+        return posted;
+    }
+
+    /**
+     * @return the number of messages scheduled
+     */
+    synchronized int size() {
+        return mSize;
+    }
+
+    private void add(ScheduledMessage scheduled) {
+        if (mSize == mHeap.length) {
+            ScheduledMessage[] heap = new ScheduledMessage[mSize * 2];
+            System.arraycopy(mHeap, 0, heap, 0, mSize);
+            mHeap = heap;
+        }
+        scheduled.mSequence = mSequence++;
+        mHeap[mSize] = scheduled;
+        scheduled.mHeapIndex = mSize;
+        mSize++;
+        siftUp(mSize - 1);
+    }
+
+    private void removeAt(int index) {
+        ScheduledMessage removed = mHeap[index];
+        removed.mHeapIndex = -1;
+        mSize--;
+        if (index == mSize) {
+            mHeap[mSize] = null;
+            return;
+        }
+        // The last one takes its place, and moves to where it belongs
+        ScheduledMessage last = mHeap[mSize];
+        mHeap[mSize] = null;
+        mHeap[index] = last;
+        last.mHeapIndex = index;
+        siftDown(index);
+        if (mHeap[index] == last) {
+            siftUp(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        ScheduledMessage scheduled = mHeap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(scheduled, mHeap[parent])) {
+                break;
+            }
+            mHeap[index] = mHeap[parent];
+            mHeap[index].mHeapIndex = index;
+            index = parent;
+        }
+        mHeap[index] = scheduled;
+        scheduled.mHeapIndex = index;
+    }
+
+    private void siftDown(int index) {
+        ScheduledMessage scheduled = mHeap[index];
+        int half = mSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < mSize && before(mHeap[right], mHeap[child])) {
+                child = right;
+            }
+            if (!before(mHeap[child], scheduled)) {
+                break;
+            }
+            mHeap[index] = mHeap[child];
+            mHeap[index].mHeapIndex = index;
+            index = child;
+        }
+        mHeap[index] = scheduled;
+        scheduled.mHeapIndex = index;
+    }
+
+    /**
+     * @return if a has to be posted before b
+     */
+    private static boolean before(ScheduledMessage a, ScheduledMessage b) {
+        if (a.mDueTime != b.mDueTime) {
+            return a.mDueTime < b.mDueTime;
+        }
+        int priorityA = a.mMessage.getPriority();
+        int priorityB = b.mMessage.getPriority();
+        if (priorityA != priorityB) {
+            return priorityA < priorityB;
+        }
+        return a.mSequence < b.mSequence;
+    }
+}
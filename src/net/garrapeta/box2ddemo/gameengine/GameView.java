@@ -1,5 +1,6 @@
 package net.garrapeta.box2ddemo.gameengine;
 
+import net.garrapeta.box2ddemo.gameengine.render.CanvasRenderer;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.util.AttributeSet;
@@ -10,7 +11,7 @@ import android.view.SurfaceView;
 /**
  * View to render the game over
  */
-public class GameView extends SurfaceView implements SurfaceHolder.Callback {
+public class GameView extends SurfaceView implements SurfaceHolder.Callback, RenderSurface {
     
     private static final String LOG_SRC = GameWorld.LOG_SRC + "." + GameView.class.getSimpleName();
 
@@ -19,6 +20,9 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
 
     private GameViewListener mGameViewListener;
 
+    /** Renderer that draws in the canvas of the surface */
+    private CanvasRenderer mRenderer = new CanvasRenderer();
+
     /**
      * Constructor
      * @param context
@@ -38,6 +42,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
      * Paint the passed world at its current state
      * @param world
      */
+    @Override
     public final void draw(GameWorld world, float currentFps) {
         // We do a synchronous drawing with this.
         // This is blocking, and it is not handled by Android mechanism
@@ -45,7 +50,8 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback {
         if (holder != null) {
             Canvas canvas = holder.lockCanvas();
             if (canvas != null) {
-                world.drawFrame(canvas, currentFps);
+                mRenderer.setCanvas(canvas);
+                world.drawFrame(mRenderer, currentFps);
                 holder.unlockCanvasAndPost(canvas); 
             }
         }
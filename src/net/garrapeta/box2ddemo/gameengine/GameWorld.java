@@ -2,20 +2,30 @@ package net.garrapeta.box2ddemo.gameengine;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
+import net.garrapeta.box2ddemo.gameengine.render.CircleBatch;
+import net.garrapeta.box2ddemo.gameengine.render.Colors;
+import net.garrapeta.box2ddemo.gameengine.render.RenderLayer;
+import net.garrapeta.box2ddemo.gameengine.render.Renderer;
+import net.garrapeta.box2ddemo.gameengine.render.Renderer.Style;
+import net.garrapeta.box2ddemo.gameengine.scheduler.FrameScheduler;
+import net.garrapeta.box2ddemo.gameengine.scheduler.SleepFrameScheduler;
 
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Paint.Style;
-import android.util.Log;
-
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 
 /**
  * World of the game.
  * All the actors and logic should be handled here
+ * 
+ * It does not depend on Android: it draws through a RenderSurface and a Renderer,
+ * so it can also run on a plain JVM with a HeadlessSurface.
  */
 public abstract class GameWorld {
 
@@ -28,23 +38,88 @@ public abstract class GameWorld {
      */
     private World mBox2dWorld;
 
-    /** Paint used to draw the world */
-    private Paint mPaint;
-
-    /** Game view   */
-    private GameView mGameView;
+    /** Surface the world is drawn in, usually the GameView */
+    private RenderSurface mSurface;
     
     /** Game loop thread */
     private Thread mGameThread;
 
+    /** Render loop thread. Only used with decoupled rendering */
+    private Thread mRenderThread;
+
+    /**
+     * Whether the drawing is done in its own thread, from snapshots of the actors
+     * published by the game loop thread.
+     */
+    private boolean mDecoupledRendering = false;
+
+    /** Snapshots of the actors, from the game loop thread to the render thread */
+    private TripleBuffer<ActorsSnapshot> mSnapshots = new TripleBuffer<ActorsSnapshot>(
+            new ActorsSnapshot(), new ActorsSnapshot(), new ActorsSnapshot());
+
+    /**
+     * Whether the actors with a static body are drawn once in an offscreen layer,
+     * which is then copied to the screen every frame, instead of drawing them every frame.
+     */
+    private boolean mStaticLayerCaching = true;
+
+    /** Actors with a static body. Read by the thread that draws when the layer is redrawn */
+    private List<Actor> mStaticActors = new CopyOnWriteArrayList<Actor>();
+
+    /** Layer with the static actors already drawn */
+    private RenderLayer mStaticLayer;
+
+    /** Whether the static layer has to be drawn again */
+    private volatile boolean mStaticLayerDirty = true;
+
+    /** Version of the points conversion the static layer was drawn with */
+    private int mStaticLayerConversionVersion;
+
+    /** Whether the actors out of the screen are not drawn */
+    private boolean mCulling = true;
+
+    /** Visible rectangle of the world, in world units, of the frame being drawn */
+    private float mViewLeft;
+    private float mViewRight;
+    private float mViewBottom;
+    private float mViewTop;
+
+    /** Actors drawn and skipped for being out of the screen in the last frame */
+    private int mDrawnActors;
+    private int mCulledActors;
+
+    /**
+     * Whether the actors made of circles are drawn together, with one call per color,
+     * after the rest of the actors
+     */
+    private boolean mCircleBatching = true;
+
+    /**
+     * Whether the Box2d natives that work on many bodies at once are used. They are not in
+     * the gdx library shipped in libs, so it is off by default.
+     */
+    private boolean mBulkNatives = false;
+
+    /** Circles of the frame being drawn */
+    private final CircleBatch mCircleBatch = new CircleBatch();
+
+    /** Transform of the actor being drawn */
+    private final float[] mDrawTransform = new float[3];
+
     /**
      * Queue of messages, to process all the logic of the game in a stage of the
      * game loop
      */
-    private List<GameMessage> mMessages;
+    private GameMessageQueue mMessages;
+
+    /** Messages waiting for a future game time */
+    private final GameMessageScheduler mScheduler = new GameMessageScheduler();
+
+    /** Time simulated since the game started, in nanoseconds. Only modified by the game loop thread */
+    private volatile long mGameTime = 0;
 
     /** Whether the game is running (looping) */
-    private boolean mRunning = false;
+    private volatile boolean mRunning = false;
 
     /** Whether the game is paused */
     private boolean mPaused = false;
@@ -52,8 +127,8 @@ public abstract class GameWorld {
     /** FPS of the game */
     private int mFps = 33;
 
-    /** Period of a frame. Time a frame must take. In ms */
-    private long mFrameLength = 1000 / mFps;
+    /** Paces the frames that are drawn (the game loop, or the render loop with decoupled rendering), so we match the FPS */
+    private FrameScheduler mFrameScheduler = new SleepFrameScheduler(1000000000L / mFps);
 
     /**
      * Seconds that last one step of the physical simulation.
@@ -71,25 +146,105 @@ public abstract class GameWorld {
      * we do several physical steps in one frame. This is the maximum we can do.
      */
     private int mMaxPhysicsStepsPerFrame = 5;
+
+    /**
+     * Whether the time not simulated in one frame is carried over to the next ones.
+     * When enabled the actors are drawn interpolating between the last two physical
+     * steps, so the physics can run at a lower rate than the drawing.
+     */
+    private boolean mFixedTimestepAccumulation = false;
+
+    /** Time pending to be simulated, in seconds. Only used with accumulation */
+    private float mPhysicsAccumulator = 0;
+
+    /**
+     * How far we are between the previous and the current physical step, in [0, 1].
+     * Always 1 when accumulation is disabled.
+     */
+    private float mInterpolationAlpha = 1;
     
     /** Current FPS. Actually, FPS achieved last frame */
     private float mCurrentFps;
 
-    /** Gravity vector of the world */
+    /** Gravity vector of the world, as set in the Box2d world */
     private Vector2 mGravity;
 
-    /** List of actors */
+    /**
+     * Gravity set from any thread, to be applied in the next frame.
+     * The bits of x are in the high half, and the bits of y in the low one.
+     */
+    private final AtomicLong mRequestedGravity = new AtomicLong(packGravity(0, 0));
+
+    /** Gravity set in the Box2d world, packed like mRequestedGravity */
+    private long mAppliedGravity = packGravity(0, 0);
+
+    /** Weight of a new value in the low pass filter of filterGravity(), in (0, 1] */
+    private volatile float mGravityFilter = 1;
+
+    /**
+     * Actors alive that are not static: the ones whose body moves, or that have no body.
+     * Their index in the list is kept in the actor, so they are removed in O(1) moving the
+     * last one to their place.
+     */
     private List<Actor> mActors;
 
+    /** Actors removed whose body is waiting to be destroyed, and the frames they were removed at */
+    private List<Actor> mPendingDestroy = new ArrayList<Actor>();
+    private long[] mPendingDestroyFrames = new long[16];
+
+    /** Pool of the messages that remove actors after some time, so scheduling them does not allocate the message */
+    private final GameMessagePool<RemoveActorMessage> mRemoveActorMessagePool = new GameMessagePool<RemoveActorMessage>() {
+        @Override
+        protected RemoveActorMessage newObject() {
+            return new RemoveActorMessage();
+        }
+    };
+
+    /** Number of frames run */
+    private long mFrame = 0;
+
+    /**
+     * Frame of the snapshot the render thread is drawing. Bodies of actors removed before
+     * it cannot be accessed by the render thread anymore.
+     */
+    private volatile long mRenderFrame = 0;
+
+    /** Whether the actors out of the reclaim bounds are removed automatically */
+    private boolean mReclaiming = false;
+
+    /** Rectangle of the world out of which actors are removed automatically */
+    private float mReclaimLeft;
+    private float mReclaimBottom;
+    private float mReclaimRight;
+    private float mReclaimTop;
+
+    /** Shapes used to create the fixtures of the actors, released when the game loop ends */
+    private final ShapeCache mShapeCache = new ShapeCache();
+
+    /** Aux array for the transform of the actors being checked for reclaiming */
+    private final float[] mReclaimTransform = new float[3];
+
+    /** Simple actors kept as arrays, for big numbers of them */
+    private ActorStore mActorStore;
+
+    /** Bodies of the actors, to read their transforms in bulk */
+    private Array<Body> mActorBodies = new Array<Body>(false, 16);
+
+    /** Transforms of the actor bodies, 3 floats each, as read from the Box2d world */
+    private float[] mActorTransforms = new float[16 * 3];
+
+    /** Text of the debug info, reused every frame */
+    private final StringBuilder mDebugInfo = new StringBuilder(64);
+
     /**
      * Loads native library 
      * TODO: perhaps not the best class to place this method...
      */
     public static void loadGdxLibrary() {
-        Log.i(LOG_SRC, "Attempting to load gdx native library");
+        GameLog.i(LOG_SRC, "Attempting to load gdx native library");
         try {
             System.loadLibrary("gdx");
-            Log.i(LOG_SRC, "gdx native library loaded");
+            GameLog.i(LOG_SRC, "gdx native library loaded");
         } catch (Throwable t) {
             throw new IllegalStateException("Could not load gdx library");
         }
@@ -98,14 +253,14 @@ public abstract class GameWorld {
     /**
      * Constructor
      */
-    public GameWorld(GameView gameView) {
+    public GameWorld(RenderSurface surface) {
         super();
-        mGameView = gameView;
-        mPaint = new Paint();
+        mSurface = surface;
         mActors = new ArrayList<Actor>();
-        mMessages = new ArrayList<GameMessage>();
+        mMessages = new GameMessageQueue();
         mGravity = new Vector2(0f, 0f);
         mBox2dWorld = new World(mGravity, true);
+        mActorStore = new ActorStore(mBox2dWorld, mShapeCache);
         
         // By default, Box2d clears all the forces in the world after step.
         // We are going to call step() several times in one same step, so we
@@ -122,59 +277,335 @@ public abstract class GameWorld {
     public abstract void init(int screenWidth, int screenHeight);
 
     /**
-     * Set the gravity
+     * Sets the gravity. It can be called from any thread and it does not block.
+     * The gravity is applied to the Box2d world once per frame, before the physical
+     * simulation, and only if it changed, so calling this often does not cost JNI calls.
      * @param vx
      * @param vy
      */
     public void setGravity(float vx, float vy) {
-        mGravity.x = vx;
-        mGravity.y = vy;
-        mBox2dWorld.setGravity(mGravity);
+        mRequestedGravity.set(packGravity(vx, vy));
     }
 
     /**
-     * @return the gravity
+     * Sets the gravity through a low pass filter, to smooth noisy input like sensors.
+     * It can be called from any thread and it does not block.
+     * @param vx
+     * @param vy
+     * @see #setGravityFilter(float)
+     */
+    public void filterGravity(float vx, float vy) {
+        float alpha = mGravityFilter;
+        long current;
+        long filtered;
+        do {
+            current = mRequestedGravity.get();
+            float x = unpackGravityX(current);
+            float y = unpackGravityY(current);
+            filtered = packGravity(x + alpha * (vx - x), y + alpha * (vy - y));
+        } while (!mRequestedGravity.compareAndSet(current, filtered));
+    }
+
+    /**
+     * Sets the weight of every new value passed to filterGravity(). The lower the
+     * smoother, and the slower the gravity follows the input.
+     * @param alpha, in (0, 1]. 1 means no filtering.
+     */
+    public void setGravityFilter(float alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Filter weight must be in (0, 1]: " + alpha);
+        }
+        mGravityFilter = alpha;
+    }
+
+    /**
+     * @return the gravity, as set in the Box2d world in the last frame.
+     * Only to be used from the game loop thread.
      */
     public Vector2 getGravity() {
         return mGravity;
     }
 
+    /**
+     * Sets in the Box2d world the gravity set since the last frame, if it changed.
+     * Done in the game loop thread, out of World.step().
+     */
+    private void applyGravity() {
+        long requested = mRequestedGravity.get();
+        if (requested != mAppliedGravity) {
+            mAppliedGravity = requested;
+            mGravity.set(unpackGravityX(requested), unpackGravityY(requested));
+            mBox2dWorld.setGravity(mGravity);
+        }
+    }
+
+    private static long packGravity(float x, float y) {
+        return ((long) Float.floatToIntBits(x) << 32) | (Float.floatToIntBits(y) & 0xFFFFFFFFL);
+    }
+
+    private static float unpackGravityX(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    private static float unpackGravityY(long packed) {
+        return Float.intBitsToFloat((int) packed);
+    }
+
+    /**
+     * Sets the scheduler that paces the frames of the game loop.
+     * Its frame length is the time a frame must take.
+     * With decoupled rendering it paces the render loop, the one that shows the frames,
+     * and the game loop sleeps with the same frame length.
+     * It cannot be changed while the game is running.
+     * @param frameScheduler
+     */
+    public void setFrameScheduler(FrameScheduler frameScheduler) {
+        if (mRunning) {
+            throw new IllegalStateException("Cannot change the frame scheduler while running");
+        }
+        mFrameScheduler = frameScheduler;
+    }
+
+    /**
+     * @return the scheduler that paces the frames of the game loop, or of the render loop
+     * with decoupled rendering
+     */
+    public FrameScheduler getFrameScheduler() {
+        return mFrameScheduler;
+    }
+
+    /**
+     * Enables or disables the decoupled rendering.
+     * With decoupled rendering the game loop thread processes the messages and simulates
+     * the physics, and publishes a snapshot of the actors after each frame. A second
+     * thread draws the newest snapshot. Neither of them waits for the other.
+     * It cannot be changed while the game is running.
+     * @param enabled
+     */
+    public void setDecoupledRendering(boolean enabled) {
+        if (mRunning) {
+            throw new IllegalStateException("Cannot change the rendering mode while running");
+        }
+        mDecoupledRendering = enabled;
+    }
+
+    /**
+     * @return if the decoupled rendering is enabled
+     */
+    public boolean isDecoupledRendering() {
+        return mDecoupledRendering;
+    }
+
+    /**
+     * Enables or disables drawing the static actors in a cached layer.
+     * The layer is drawn again when its size or the points conversion changes, when a
+     * static actor is added, or when invalidateStaticLayer() is called.
+     * @param enabled
+     */
+    public void setStaticLayerCaching(boolean enabled) {
+        mStaticLayerCaching = enabled;
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * @return if the static actors are drawn in a cached layer
+     */
+    public boolean isStaticLayerCaching() {
+        return mStaticLayerCaching;
+    }
+
+    /**
+     * Makes the static layer be drawn again in the next frame.
+     * To be called when a static actor changes its appearance.
+     */
+    public void invalidateStaticLayer() {
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * Enables or disables skipping the drawing of the actors that are out of the screen,
+     * according to their bounding radius. The static actors drawn in the static layer
+     * are not culled.
+     * @param enabled
+     */
+    public void setCulling(boolean enabled) {
+        mCulling = enabled;
+    }
+
+    /**
+     * @return if the actors out of the screen are not drawn
+     */
+    public boolean isCulling() {
+        return mCulling;
+    }
+
+    /**
+     * Enables or disables drawing the actors made of circles in batches, one per color.
+     * Batching changes the drawing order: batched actors are drawn on top of the rest.
+     * @param enabled
+     */
+    public void setCircleBatching(boolean enabled) {
+        mCircleBatching = enabled;
+    }
+
+    /**
+     * @return if the actors made of circles are drawn in batches
+     */
+    public boolean isCircleBatching() {
+        return mCircleBatching;
+    }
+
+    /**
+     * Enables or disables the Box2d natives that read the transforms of, or create, many
+     * bodies with one call, instead of one or two calls per body.
+     * Only to be enabled with a gdx library built from the sources in this project: the
+     * one shipped in libs does not have them, and calling them would throw UnsatisfiedLinkError.
+     * @param enabled
+     */
+    public void setBulkNatives(boolean enabled) {
+        mBulkNatives = enabled;
+        mActorStore.setBulkNatives(enabled);
+    }
+
+    /**
+     * @return if the bulk Box2d natives are used
+     */
+    public boolean isBulkNatives() {
+        return mBulkNatives;
+    }
+
+    /**
+     * @return the number of actors drawn in the last frame, not counting the ones in the static layer
+     */
+    public int getDrawnActorCount() {
+        return mDrawnActors;
+    }
+
+    /**
+     * @return the number of actors not drawn in the last frame for being out of the screen
+     */
+    public int getCulledActorCount() {
+        return mCulledActors;
+    }
+
+    /**
+     * Sets the length of the physical step
+     * @param physicStep, in seconds
+     */
+    public void setPhysicStep(float physicStep) {
+        if (physicStep <= 0) {
+            throw new IllegalArgumentException("Physic step must be positive: " + physicStep);
+        }
+        mPhysicStep = physicStep;
+    }
+
+    /**
+     * @return the length of the physical step, in seconds
+     */
+    public float getPhysicStep() {
+        return mPhysicStep;
+    }
+
+    /**
+     * Enables or disables the fixed timestep accumulation.
+     * With accumulation the time left over in a frame is simulated in the next frames,
+     * and the actors are drawn interpolated between the two last physical steps.
+     * @param enabled
+     */
+    public void setFixedTimestepAccumulation(boolean enabled) {
+        mFixedTimestepAccumulation = enabled;
+        mPhysicsAccumulator = 0;
+        mInterpolationAlpha = 1;
+    }
+
+    /**
+     * @return if the fixed timestep accumulation is enabled
+     */
+    public boolean isFixedTimestepAccumulation() {
+        return mFixedTimestepAccumulation;
+    }
+
+    /**
+     * Factor to blend the previous and current physical state of the actors when
+     * drawing them: previous * (1 - alpha) + current * alpha
+     * @return the interpolation alpha, in [0, 1]
+     */
+    public float getInterpolationAlpha() {
+        return mInterpolationAlpha;
+    }
+
     /**
      * Processes all the enqueued messages. If some logic requires some
      * operation that cannot be done in the middle of a physical simulation or drawing 
      * operation, it's better to avoid synchronized methods and enqueue a message instead, 
      * so it can be processed at one stage of the game loop.
      * 
-     * If we synchronize the method we will lose performance.
+     * The queue is lock-free, so posting from other threads does not stall the loop.
      * This is similar to what Android does in the UI thread. 
      */
     private void processMessages() {
-        GameMessage[] messages;
-        synchronized (mMessages) {
-            messages = new GameMessage[mMessages.size()];
-            mMessages.toArray(messages);
-            mMessages.clear();
-        }
-        for (GameMessage message : messages) {
-            message.process(this);
-        }
+        mScheduler.postDue(mGameTime, mMessages);
+        mMessages.processAll(this);
     }
     
     /**
      * Enqueue a message to be processed at the dedicated stage of the game loop.
+     * It can be called from any thread, and it does not block.
      * @param message
      */
     public void post(GameMessage message) {
-        synchronized (mMessages) {
-            int index = 0;
-            for (GameMessage aux : mMessages) {
-                if (aux.getPriority() > message.getPriority()) {
-                    break;
-                }
-                index++;
-            }
-            mMessages.add(index, message);
+        mMessages.post(message);
+    }
+
+    /**
+     * Enqueues a message in a coalescing channel, replacing the message posted to the same
+     * channel that has not been processed yet. So at most one message per channel is
+     * processed each frame. Meant for high frequency input, like sensors or moves.
+     * It can be called from any thread, and it does not block.
+     * @param channel small non negative number, chosen by the game
+     * @param message
+     */
+    public void postCoalescing(int channel, GameMessage message) {
+        mMessages.postCoalescing(channel, message);
+    }
+
+    /**
+     * Schedules a message to be processed once, when the game time reaches now plus the delay.
+     * It can be called from any thread.
+     * @param message
+     * @param delay, in milliseconds of game time
+     * @return handle to cancel the message
+     */
+    public ScheduledMessage schedule(GameMessage message, long delay) {
+        return mScheduler.schedule(message, mGameTime + delay * 1000000L, 0);
+    }
+
+    /**
+     * Schedules a message to be processed repeatedly, every period of game time, until cancelled.
+     * If several periods elapse in one frame the message is processed only once.
+     * Pooled messages cannot be periodic, since they are freed after being processed.
+     * It can be called from any thread.
+     * @param message
+     * @param delay until the first time, in milliseconds of game time
+     * @param period, in milliseconds of game time
+     * @return handle to cancel the message
+     */
+    public ScheduledMessage schedulePeriodic(GameMessage message, long delay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        if (message instanceof PooledGameMessage) {
+            throw new IllegalArgumentException("Pooled messages cannot be periodic: " + message);
         }
+        return mScheduler.schedule(message, mGameTime + delay * 1000000L, period * 1000000L);
+    }
+
+    /**
+     * @return the time simulated since the game started, in milliseconds. It does not
+     * advance while paused.
+     */
+    public long getGameTime() {
+        return mGameTime / 1000000L;
     }
 
     /**
@@ -182,6 +613,11 @@ public abstract class GameWorld {
      * @param frameTime, time we have to simulate, in milliseconds
      */
     private void simulatePhysics(float frameTime) {
+        if (mFixedTimestepAccumulation) {
+            simulatePhysicsAccumulating(frameTime);
+            return;
+        }
+
         int steps = mMaxPhysicsStepsPerFrame;
 
         // Box2d works with seconds
@@ -197,52 +633,391 @@ public abstract class GameWorld {
         }
 
         mBox2dWorld.clearForces();
+        readActorTransforms();
+    }
+
+    /**
+     * Simulates the physics in the world carrying the remainder of time that does not
+     * fill a whole step to the next frame.
+     * @param frameTime, time we have to simulate, in milliseconds
+     */
+    private void simulatePhysicsAccumulating(float frameTime) {
+        int steps = mMaxPhysicsStepsPerFrame;
+
+        // Box2d works with seconds
+        mPhysicsAccumulator += frameTime / 1000;
+
+        boolean stepped = false;
+        while (mPhysicsAccumulator >= mPhysicStep && steps > 0) {
+            storePreviousStates();
+            mBox2dWorld.step(mPhysicStep, 2, 1);
+            readActorTransforms();
+            mPhysicsAccumulator -= mPhysicStep;
+            steps --;
+            stepped = true;
+        }
+
+        // If we could not catch up with the time to simulate (a very long frame) we
+        // drop it. Otherwise every frame would have more and more to simulate.
+        if (mPhysicsAccumulator >= mPhysicStep) {
+            GameLog.v(LOG_SRC_LOOP, "Dropping simulation time: " + mPhysicsAccumulator);
+            mPhysicsAccumulator %= mPhysicStep;
+        }
+
+        mInterpolationAlpha = mPhysicsAccumulator / mPhysicStep;
+
+        // Forces must survive until they have been applied in at least one step
+        if (stepped) {
+            mBox2dWorld.clearForces();
+        }
+    }
+
+    /**
+     * Reads the transforms of the bodies of the actors and hands them to the actors.
+     * With the bulk natives they are read with one single call to the Box2d world, instead
+     * of two JNI calls per actor. Static actors are not in mActors, so they are not read.
+     */
+    private void readActorTransforms() {
+        if (!mBulkNatives) {
+            for (int i = 0; i < mActors.size(); i++) {
+                Actor actor = mActors.get(i);
+                Body body = actor.getBody();
+                if (body != null) {
+                    Vector2 position = body.getPosition();
+                    actor.updateTransform(position.x, position.y, body.getAngle());
+                }
+            }
+            mActorStore.readTransforms();
+            return;
+        }
+
+        mActorBodies.clear();
+        for (int i = 0; i < mActors.size(); i++) {
+            Body body = mActors.get(i).getBody();
+            if (body != null) {
+                mActorBodies.add(body);
+            }
+        }
+
+        int count = mActorBodies.size;
+        if (mActorTransforms.length < count * 3) {
+            mActorTransforms = new float[count * 2 * 3];
+        }
+        mBox2dWorld.getBodyTransforms(mActorBodies, mActorTransforms);
+
+        int offset = 0;
+        for (int i = 0; i < mActors.size(); i++) {
+            Actor actor = mActors.get(i);
+            if (actor.getBody() != null) {
+                actor.updateTransform(mActorTransforms[offset], mActorTransforms[offset + 1], mActorTransforms[offset + 2]);
+                offset += 3;
+            }
+        }
+
+        mActorStore.readTransforms();
+    }
+
+    /**
+     * Makes the actors remember their physical state before a step, so they
+     * can be drawn interpolated.
+     */
+    private void storePreviousStates() {
+        for (int i = 0; i < mActors.size(); i++) {
+            mActors.get(i).storePreviousState();
+        }
+        mActorStore.storePreviousTransforms();
     }
 
     /**
      * Draws the world...
      * 
-     * @param canvas
+     * @param renderer
      * @param currentFps
      */
-    public final void drawFrame(Canvas canvas, float currentFps) {
-        mPaint.setStyle(Style.FILL);
-        mPaint.setColor(Color.BLACK);
-        canvas.drawRect(0, 0, canvas.getWidth(), canvas.getHeight(), mPaint);
-        drawActors(canvas, mPaint);
-        drawDebugInfo(canvas, mPaint, currentFps);
+    public final void drawFrame(Renderer renderer, float currentFps) {
+        renderer.clear(Colors.BLACK);
+        if (mStaticLayerCaching) {
+            drawStaticLayer(renderer);
+        }
+        drawActors(renderer);
+        drawDebugInfo(renderer, currentFps);
     }
 
     /**
      * Draws the actors...
-     * @param canvas
-     * @param paint
+     * @param renderer
+     */
+    private void drawActors(Renderer renderer) {
+        mDrawnActors = 0;
+        mCulledActors = 0;
+
+        PointsConversionUtils conversion = PointsConversionUtils.getInstance();
+        mViewLeft = conversion.screenToWorldX(0);
+        mViewRight = conversion.screenToWorldX(renderer.getWidth());
+        mViewTop = conversion.screenToWorldY(0);
+        mViewBottom = conversion.screenToWorldY(renderer.getHeight());
+
+        if (mDecoupledRendering) {
+            // The actors are drawn as they were when the snapshot was taken
+            ActorsSnapshot snapshot = mSnapshots.getReadBuffer();
+            float[] transforms = snapshot.getTransforms();
+            int count = snapshot.getCount();
+            for (int i = 0; i < count; i++) {
+                int offset = i * ActorsSnapshot.TRANSFORM_SIZE;
+                drawActor(renderer, snapshot.getActor(i), transforms[offset], transforms[offset + 1], transforms[offset + 2]);
+            }
+            drawStoreActors(snapshot.getStoreCount(), snapshot.getStoreTransforms(), snapshot.getStoreSizes(),
+                    snapshot.getStoreColors(), snapshot.getStoreKinds());
+        } else {
+            drawActors(renderer, mActors);
+            if (!mStaticLayerCaching) {
+                drawActors(renderer, mStaticActors);
+            }
+            ActorStore store = mActorStore;
+            drawStoreActors(store.size(), store.getDrawTransforms(mInterpolationAlpha), store.getSizes(),
+                    store.getColors(), store.getKinds());
+        }
+
+        mCircleBatch.flush(renderer);
+    }
+
+    /**
+     * Draws the actors of the list, at their current transform
      */
-    private void drawActors(Canvas canvas, Paint paint) {
-        for (Actor actor : mActors) {
-            actor.draw(canvas, mPaint);
+    private void drawActors(Renderer renderer, List<Actor> actors) {
+        float[] transform = mDrawTransform;
+        for (int i = 0; i < actors.size(); i++) {
+            Actor actor = actors.get(i);
+            actor.getTransform(transform, 0);
+            drawActor(renderer, actor, transform[0], transform[1], transform[2]);
         }
     }
 
+    /**
+     * Adds the actors of the store to the batch, straight from its arrays
+     * @param count number of actors
+     * @param transforms x, y and angle of each actor
+     * @param sizes radius, or half width and half height, of each actor
+     * @param colors
+     * @param kinds
+     */
+    private void drawStoreActors(int count, float[] transforms, float[] sizes, int[] colors, byte[] kinds) {
+        PointsConversionUtils conversion = PointsConversionUtils.getInstance();
+        CircleBatch batch = mCircleBatch;
+        for (int i = 0; i < count; i++) {
+            int offset = i * ActorStore.TRANSFORM_SIZE;
+            float worldX = transforms[offset];
+            float worldY = transforms[offset + 1];
+            float angle = transforms[offset + 2];
+            float width = sizes[i * ActorStore.SIZE_SIZE];
+            float height = sizes[i * ActorStore.SIZE_SIZE + 1];
+            boolean circle = kinds[i] == ActorStore.KIND_CIRCLE;
+
+            float radius = circle ? width : (float) Math.sqrt(width * width + height * height);
+            if (isCulled(worldX, worldY, radius)) {
+                mCulledActors++;
+                continue;
+            }
+
+            float x = conversion.worldToScreenX(worldX);
+            float y = conversion.worldToScreenY(worldY);
+            float cos = MathUtils.cos(angle);
+            float sin = MathUtils.sin(angle);
+            int color = colors[i];
+            if (circle) {
+                float r = conversion.metersToPixels(width);
+                // The y axis of the screen points down
+                batch.add(color, x, y, r, x + r * cos, y - r * sin);
+            } else {
+                // Half diagonals of the box, rotated, in screen pixels
+                float w = conversion.metersToPixels(width);
+                float h = conversion.metersToPixels(height);
+                float ax = w * cos - h * sin;
+                float ay = -(w * sin + h * cos);
+                float bx = w * cos + h * sin;
+                float by = -(w * sin - h * cos);
+                batch.addLine(color, x + ax, y + ay, x - bx, y - by);
+                batch.addLine(color, x - bx, y - by, x - ax, y - ay);
+                batch.addLine(color, x - ax, y - ay, x + bx, y + by);
+                batch.addLine(color, x + bx, y + by, x + ax, y + ay);
+            }
+            mDrawnActors++;
+        }
+    }
+
+    /**
+     * @return if culling is enabled and the circle is out of the visible rectangle
+     */
+    private boolean isCulled(float worldX, float worldY, float radius) {
+        return mCulling && (worldX + radius < mViewLeft || worldX - radius > mViewRight
+                || worldY + radius < mViewBottom || worldY - radius > mViewTop);
+    }
+
+    /**
+     * Draws the actor, unless culling is enabled and it is out of the visible rectangle
+     */
+    private void drawActor(Renderer renderer, Actor actor, float worldX, float worldY, float angle) {
+        if (isCulled(worldX, worldY, actor.getBoundingRadius())) {
+            mCulledActors++;
+            return;
+        }
+        if (!mCircleBatching || !actor.drawBatched(mCircleBatch, worldX, worldY, angle)) {
+            actor.draw(renderer, worldX, worldY, angle);
+        }
+        mDrawnActors++;
+    }
+
+    /**
+     * Draws the layer with the static actors, drawing them in it first if needed
+     * @param renderer
+     */
+    private void drawStaticLayer(Renderer renderer) {
+        if (mStaticLayer == null && mStaticActors.isEmpty()) {
+            return;
+        }
+
+        int width = renderer.getWidth();
+        int height = renderer.getHeight();
+        if (mStaticLayer != null && (mStaticLayer.getWidth() != width || mStaticLayer.getHeight() != height)) {
+            // The surface was resized
+            mStaticLayer.dispose();
+            mStaticLayer = null;
+        }
+        if (mStaticLayer == null) {
+            mStaticLayer = renderer.createLayer(width, height);
+            mStaticLayerDirty = true;
+        }
+
+        int conversionVersion = PointsConversionUtils.getInstance().getVersion();
+        if (mStaticLayerDirty || mStaticLayerConversionVersion != conversionVersion) {
+            mStaticLayerDirty = false;
+            mStaticLayerConversionVersion = conversionVersion;
+            Renderer layerRenderer = mStaticLayer.begin();
+            for (Actor actor : mStaticActors) {
+                actor.draw(layerRenderer);
+            }
+        }
+        renderer.drawLayer(mStaticLayer, 0, 0);
+    }
+
     /** Draws the debug info */
-    private void drawDebugInfo(Canvas canvas, Paint paint, float currentFps) {
-        String str = "actors#: " + mActors.size() + " FPS: " + currentFps;
+    private void drawDebugInfo(Renderer renderer, float currentFps) {
+        int actorCount = mActors.size() + mStaticActors.size() + mActorStore.size();
+        if (mDecoupledRendering) {
+            ActorsSnapshot snapshot = mSnapshots.getReadBuffer();
+            actorCount = snapshot.getCount() + snapshot.getStoreCount() + (mStaticLayerCaching ? mStaticActors.size() : 0);
+        }
+        // Built in a reused StringBuilder, with the FPS rounded to one decimal, so no garbage is created
+        int fpsTenths = Math.round(currentFps * 10);
+        StringBuilder str = mDebugInfo;
+        str.setLength(0);
+        str.append("actors#: ").append(actorCount)
+                .append(" FPS: ").append(fpsTenths / 10).append('.').append(fpsTenths % 10)
+                .append(" missed: ").append(mFrameScheduler.getMissedDeadlines())
+                .append(" drawn: ").append(mDrawnActors)
+                .append(" culled: ").append(mCulledActors);
 
         // TODO: things harcoded here
-        paint.setColor(Color.RED);
-        paint.setTextSize(20);
-        canvas.drawText(str, 0, 20, paint);
+        renderer.setStyle(Style.FILL);
+        renderer.setColor(Colors.RED);
+        renderer.setTextSize(20);
+        renderer.drawText(str, 0, 20);
+    }
+
+    /**
+     * Publishes the current state of the actors, to be drawn by the render thread
+     */
+    private void publishSnapshot() {
+        ActorsSnapshot snapshot = mSnapshots.getWriteBuffer();
+        snapshot.clear();
+        snapshot.setFrame(mFrame);
+        for (int i = 0; i < mActors.size(); i++) {
+            snapshot.add(mActors.get(i));
+        }
+        if (!mStaticLayerCaching) {
+            for (int i = 0; i < mStaticActors.size(); i++) {
+                snapshot.add(mStaticActors.get(i));
+            }
+        }
+        snapshot.setStore(mActorStore, mInterpolationAlpha);
+        mSnapshots.publish();
+    }
+
+    /**
+     * Does all the work of one frame of the game loop, except waiting for the next one
+     * @param frameTime, time to simulate, in milliseconds
+     */
+    private void runFrame(float frameTime) {
+        mFrame++;
+        mGameTime += (long) (frameTime * 1000000L);
+        processMessages();
+        destroyPendingActors();
+        applyGravity();
+        simulatePhysics(frameTime);
+        if (mReclaiming) {
+            reclaimActors();
+        }
+        if (mDecoupledRendering) {
+            publishSnapshot();
+        } else {
+            mSurface.draw(this, mCurrentFps);
+        }
+    }
+
+    /**
+     * Runs one frame of the game in the calling thread, instead of in the game loop.
+     * Meant for running the game without a real time loop, like in tests or benchmarks.
+     * @param frameTime, time to simulate, in milliseconds
+     */
+    public void advanceFrame(float frameTime) {
+        if (mRunning) {
+            throw new IllegalStateException("Cannot advance frames while the game loop is running");
+        }
+        mCurrentFps = frameTime > 0 ? 1000 / frameTime : 0;
+        runFrame(frameTime);
+        if (mDecoupledRendering) {
+            // There is no render thread, we draw the snapshot just published
+            mSnapshots.update();
+            mRenderFrame = mSnapshots.getReadBuffer().getFrame();
+            mSurface.draw(this, mCurrentFps);
+        }
+    }
+
+    /**
+     * Blocks the calling loop thread while the game is paused
+     * @return if the thread has been blocked
+     */
+    private boolean waitWhilePaused() {
+        // The pause mechanism is done by making the thread wait until is 
+        // resumed (awaken)
+        synchronized (mGameThread) {
+            if (!mPaused) {
+                return false;
+            }
+            GameLog.d(LOG_SRC_LOOP, "Loop paused");
+            try {
+                mGameThread.wait();
+                GameLog.d(LOG_SRC_LOOP, "Loop resumed");
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            return true;
+        }
     }
 
     /**
      * Start looping
      */
     public void start() {
-        Log.i(LOG_SRC, "Starting game loop...");
+        GameLog.i(LOG_SRC, "Starting game loop...");
         mRunning = true;
 
         mGameThread = new Thread(new GameLoopRunnable());
+        mRenderThread = mDecoupledRendering ? new Thread(new RenderLoopRunnable()) : null;
         mGameThread.start();
+        if (mRenderThread != null) {
+            mRenderThread.start();
+        }
 
     }
 
@@ -250,7 +1025,7 @@ public abstract class GameWorld {
      * Stop looping (ends the game loop thread)
      */
     public void stop() {
-        Log.i(LOG_SRC, "Stopping game loop...");
+        GameLog.i(LOG_SRC, "Stopping game loop...");
         mRunning = false;
     }
 
@@ -258,7 +1033,7 @@ public abstract class GameWorld {
      * Pause the game thread (does not exit the game loop, just pauses it)
      */
     public void pause() {
-        Log.i(LOG_SRC, "Pausing game loop...");
+        GameLog.i(LOG_SRC, "Pausing game loop...");
         if (!mRunning) {
             throw new IllegalStateException("Cannot pause the game while not running");
         }
@@ -271,13 +1046,14 @@ public abstract class GameWorld {
      * Resume the game thread
      */
     public void resume() {
-        Log.i(LOG_SRC, "Resuming game loop...");
+        GameLog.i(LOG_SRC, "Resuming game loop...");
         if (!mRunning) {
             throw new IllegalStateException("Cannot resume the game while not running");
         }
         synchronized (mGameThread) {
             mPaused = false;
-            mGameThread.notify();
+            // Both the game and the render thread may be waiting
+            mGameThread.notifyAll();
         }
     }
 
@@ -303,7 +1079,214 @@ public abstract class GameWorld {
      * @param actor
      */
     public void addActor(Actor actor) {
-        mActors.add(actor);
+        if (actor.getState() != Actor.State.SPAWNED) {
+            throw new IllegalStateException("Actor already added: " + actor + ", " + actor.getState());
+        }
+        // Before it can be drawn, maybe from the render thread
+        actor.captureDrawData();
+        Body body = actor.getBody();
+        if (body != null && body.getType() == BodyType.StaticBody) {
+            actor.setWorldIndex(-1);
+            mStaticActors.add(actor);
+            mStaticLayerDirty = true;
+        } else {
+            actor.setWorldIndex(mActors.size());
+            mActors.add(actor);
+        }
+        actor.setState(Actor.State.ALIVE);
+    }
+
+    /**
+     * Adds to the world an actor taken from the pool, reusing its body and fixtures if the
+     * pool has free ones, at the passed transform and without velocity.
+     * When the actor is removed its body is deactivated and it goes back to the pool.
+     * Not to be called during the physical step, or from its callbacks.
+     * @param pool
+     * @param x
+     * @param y
+     * @param angle, in radians
+     * @return the actor
+     */
+    public <T extends Actor> T spawnActor(ActorPool<T> pool, float x, float y, float angle) {
+        T actor = pool.obtain();
+        Body body = actor.getBody();
+        if (body != null) {
+            body.setTransform(x, y, angle);
+            body.setLinearVelocity(0, 0);
+            body.setAngularVelocity(0);
+            body.setAwake(true);
+            body.setActive(true);
+        }
+        // No interpolation with where it was before being freed
+        actor.updateTransform(x, y, angle);
+        actor.storePreviousState();
+        actor.setState(Actor.State.SPAWNED);
+        addActor(actor);
+        return actor;
+    }
+
+    /**
+     * Removes an actor. It stops being simulated and drawn right away, and its body is
+     * destroyed later, at a stage of the game loop out of the physical step, once the render
+     * thread cannot be drawing it anymore. Actors spawned from a pool go back to it instead.
+     * Removing an actor that is not alive does nothing.
+     * To be called from the game loop thread: processing messages or in physics callbacks.
+     * @param actor
+     */
+    public void removeActor(Actor actor) {
+        if (actor.getState() != Actor.State.ALIVE) {
+            return;
+        }
+        int index = actor.getWorldIndex();
+        if (index < 0) {
+            mStaticActors.remove(actor);
+            mStaticLayerDirty = true;
+        } else {
+            // The last one takes its place
+            int last = mActors.size() - 1;
+            Actor moved = mActors.remove(last);
+            if (index != last) {
+                mActors.set(index, moved);
+                moved.setWorldIndex(index);
+            }
+        }
+        actor.setWorldIndex(-1);
+        actor.setState(Actor.State.PENDING_DESTROY);
+
+        int pending = mPendingDestroy.size();
+        if (pending == mPendingDestroyFrames.length) {
+            long[] frames = new long[pending * 2];
+            System.arraycopy(mPendingDestroyFrames, 0, frames, 0, pending);
+            mPendingDestroyFrames = frames;
+        }
+        mPendingDestroyFrames[pending] = mFrame;
+        mPendingDestroy.add(actor);
+    }
+
+    /**
+     * Removes an actor after some game time, unless it has been removed before.
+     * If the actor came from a pool and has been spawned again, the new one is not removed.
+     * To be called once the actor has been added.
+     * @param actor
+     * @param delay, in milliseconds of game time
+     * @return handle to cancel the removal
+     */
+    public ScheduledMessage removeActorAfter(Actor actor, long delay) {
+        RemoveActorMessage message = mRemoveActorMessagePool.obtain();
+        message.mActor = actor;
+        message.mGeneration = actor.getGeneration();
+        return schedule(message, delay);
+    }
+
+    /**
+     * Makes the world remove automatically the actors whose position goes out of the
+     * passed rectangle, like the ones that fall out of the level. Actors of the actor
+     * store are removed too.
+     * @param left
+     * @param bottom
+     * @param right
+     * @param top
+     */
+    public void setReclaimBounds(float left, float bottom, float right, float top) {
+        mReclaimLeft = left;
+        mReclaimBottom = bottom;
+        mReclaimRight = right;
+        mReclaimTop = top;
+        mReclaiming = true;
+    }
+
+    /**
+     * Stops removing automatically the actors out of the reclaim bounds
+     */
+    public void clearReclaimBounds() {
+        mReclaiming = false;
+    }
+
+    /**
+     * Destroys the bodies of the removed actors, in one go, unless the render thread
+     * could still be drawing them. The store actors are not drawn from their bodies,
+     * so theirs are always destroyed.
+     */
+    private void destroyPendingActors() {
+        mActorStore.destroyPendingBodies();
+        int pending = mPendingDestroy.size();
+        if (pending == 0) {
+            return;
+        }
+        long renderFrame = mRenderFrame;
+        int kept = 0;
+        for (int i = 0; i < pending; i++) {
+            Actor actor = mPendingDestroy.get(i);
+            long frame = mPendingDestroyFrames[i];
+            if (mDecoupledRendering && renderFrame < frame) {
+                // The render thread may still be drawing a snapshot with it
+                mPendingDestroy.set(kept, actor);
+                mPendingDestroyFrames[kept] = frame;
+                kept++;
+                continue;
+            }
+            actor.setState(Actor.State.DESTROYED);
+            ActorPool<?> pool = actor.getPool();
+            if (pool != null) {
+                // Its body is kept, inactive, to be spawned again
+                pool.free(actor, mBox2dWorld);
+            } else {
+                Body body = actor.getBody();
+                if (body != null) {
+                    mBox2dWorld.destroyBody(body);
+                }
+            }
+        }
+        for (int i = pending - 1; i >= kept; i--) {
+            mPendingDestroy.remove(i);
+        }
+    }
+
+    /**
+     * Removes the actors out of the reclaim bounds
+     */
+    private void reclaimActors() {
+        float[] transform = mReclaimTransform;
+        // Backwards, since removing moves the last actor to the place of the removed one
+        for (int i = mActors.size() - 1; i >= 0; i--) {
+            Actor actor = mActors.get(i);
+            actor.getTransform(transform, 0);
+            if (isOutOfReclaimBounds(transform[0], transform[1])) {
+                removeActor(actor);
+            }
+        }
+
+        ActorStore store = mActorStore;
+        float[] transforms = store.getTransforms();
+        for (int i = store.size() - 1; i >= 0; i--) {
+            int offset = i * ActorStore.TRANSFORM_SIZE;
+            if (isOutOfReclaimBounds(transforms[offset], transforms[offset + 1])) {
+                store.remove(store.getHandle(i));
+            }
+        }
+    }
+
+    private boolean isOutOfReclaimBounds(float x, float y) {
+        return x < mReclaimLeft || x > mReclaimRight || y < mReclaimBottom || y > mReclaimTop;
+    }
+
+    /**
+     * Cache of the shapes to create fixtures with, shared by all the actors of the world.
+     * Its shapes must not be disposed by the actors.
+     * @return the shape cache
+     */
+    public ShapeCache getShapeCache() {
+        return mShapeCache;
+    }
+
+    /**
+     * Store of simple actors kept as arrays of primitives instead of as Actor objects.
+     * Its actors are simulated and drawn together with the Actor ones.
+     * Only to be used from the game loop thread, typically when processing messages.
+     * @return the actor store
+     */
+    public ActorStore getActorStore() {
+        return mActorStore;
     }
 
     /**
@@ -327,49 +1310,104 @@ public abstract class GameWorld {
 
         @Override
         public void run() {
-            Log.i(LOG_SRC_LOOP, "Game loop started");
+            GameLog.i(LOG_SRC_LOOP, "Game loop started");
 
+            // With decoupled rendering the configured scheduler paces the render loop.
+            // Each thread needs its own, since a scheduler keeps the deadline of its frames
+            FrameScheduler scheduler = mDecoupledRendering
+                    ? new SleepFrameScheduler(mFrameScheduler.getFrameLength()) : mFrameScheduler;
             float frameTime = 0;
+            long lastTimeStamp = System.nanoTime();
+            scheduler.start();
 
             while (mRunning) {
-                long initTimeStamp = System.currentTimeMillis();
-                
-                processMessages();
-                simulatePhysics(frameTime);
-                mGameView.draw(GameWorld.this, mCurrentFps);
+                runFrame(frameTime);
 
                 // Adjust of the length of this frame, so we match the FPS
-                long elapsed = System.currentTimeMillis() - initTimeStamp;
-                
-                long diff = mFrameLength - elapsed;
-                if (diff > 0) {
-                    try {
-                        Thread.sleep(diff);
-                    } catch (InterruptedException ie) {
-                    }
+                scheduler.waitForNextFrame();
+
+                long timeStamp = System.nanoTime();
+                long frameNanos = timeStamp - lastTimeStamp;
+                lastTimeStamp = timeStamp;
+
+                frameTime = frameNanos / 1000000f;
+                GameLog.v(LOG_SRC_LOOP, "Frame time: " + frameTime);
+
+                mCurrentFps = frameNanos > 0 ? 1000000000f / frameNanos : 0;
+
+                if (waitWhilePaused()) {
+                    // The time paused does not count as frame time
+                    lastTimeStamp = System.nanoTime();
+                    scheduler.start();
+                }
+            }
+
+            // No more fixtures are created
+            mShapeCache.dispose();
+
+            GameLog.i(LOG_SRC_LOOP, "Draw loop ended");
+        }
+    }
+
+    /**
+     * Render loop runnable. Only used with decoupled rendering.
+     * Draws the newest snapshot published by the game loop.
+     */
+    class RenderLoopRunnable implements Runnable {
+
+        @Override
+        public void run() {
+            GameLog.i(LOG_SRC_LOOP, "Render loop started");
+
+            FrameScheduler scheduler = mFrameScheduler;
+            float currentFps = 0;
+            long lastTimeStamp = System.nanoTime();
+            scheduler.start();
+
+            while (mRunning) {
+                // If nothing has been published since last frame there is nothing new to draw
+                if (mSnapshots.update()) {
+                    // From now on the actors removed before this snapshot are not drawn
+                    mRenderFrame = mSnapshots.getReadBuffer().getFrame();
+                    mSurface.draw(GameWorld.this, currentFps);
                 }
-                
-                frameTime = System.currentTimeMillis() - initTimeStamp;
-                Log.v(LOG_SRC_LOOP, "Frame time: " + frameTime);
-
-                mCurrentFps = 1000 / frameTime;
-
-                // The pause mechanism is done by making the thread wait until is 
-                // resumed (awaken)
-                synchronized (mGameThread) {
-                    if (mPaused) {
-                        Log.d(LOG_SRC_LOOP, "Game loop paused");
-                        try {
-                            mGameThread.wait();
-                            Log.d(LOG_SRC_LOOP, "Game loop resumed");
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
-                    }
+
+                scheduler.waitForNextFrame();
+
+                long timeStamp = System.nanoTime();
+                long frameNanos = timeStamp - lastTimeStamp;
+                lastTimeStamp = timeStamp;
+                currentFps = frameNanos > 0 ? 1000000000f / frameNanos : 0;
+
+                if (waitWhilePaused()) {
+                    lastTimeStamp = System.nanoTime();
+                    scheduler.start();
                 }
             }
 
-            Log.i(LOG_SRC_LOOP, "Draw loop ended");
+            GameLog.i(LOG_SRC_LOOP, "Render loop ended");
+        }
+    }
+
+    /**
+     * Removes an actor, unless it has been spawned again since the message was scheduled
+     */
+    private static class RemoveActorMessage extends PooledGameMessage {
+
+        private Actor mActor;
+        private int mGeneration;
+
+        @Override
+        public void process(GameWorld world) {
+            if (mActor.getGeneration() == mGeneration) {
+                world.removeActor(mActor);
+            }
+        }
+
+        @Override
+        public void reset() {
+            mActor = null;
+            mGeneration = 0;
         }
     }
 
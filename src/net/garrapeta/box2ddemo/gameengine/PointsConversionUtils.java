@@ -2,9 +2,6 @@ package net.garrapeta.box2ddemo.gameengine;
 
 import com.badlogic.gdx.math.Vector2;
 
-import android.graphics.Point;
-import android.graphics.PointF;
-
 /**
  * In Android we work with pixels or dp.
  * Box2d works with meters (actually it works with "world units", but this world units should
@@ -13,7 +10,8 @@ import android.graphics.PointF;
  * 
  * In Android the point 0,0 is the upper left corner. In Box2d it is the bottom left corner.
  * 
- * In Android we prefer to use PointF, Box2d uses Vector2.
+ * Points are Vector2 in both systems, so this class does not depend on Android and the
+ * game world can run on a plain JVM.
  * 
  * This class is handy for doing those conversions. 
  *
@@ -29,6 +27,9 @@ public class PointsConversionUtils {
     private float mWorldWidth;
     private float mWorldHeight;
 
+    /** Incremented every time the conversion changes, so cached screen geometry can be invalidated */
+    private int mVersion;
+
     /**
      * @return gets a singleton of this class
      */
@@ -49,6 +50,14 @@ public class PointsConversionUtils {
         mPixelsInMeter = pixelsInMeter;
         mWorldWidth = worldWidth;
         mWorldHeight = worldHeight;
+        mVersion++;
+    }
+
+    /**
+     * @return a number that changes every time the conversion changes
+     */
+    public int getVersion() {
+        return mVersion;
     }
 
     // TODO: javadoc bla bla bla
@@ -61,23 +70,119 @@ public class PointsConversionUtils {
         return meters * mPixelsInMeter;
     }
 
-    public PointF worldToScreen(Vector2 worldPos) {
-        PointF screenPos = worldToScreen(worldPos.x, worldPos.y);
-        return screenPos;
+    public float worldToScreenX(float worldX) {
+        return metersToPixels(worldX);
     }
 
-    public PointF worldToScreen(float worldX, float worldY) {
-        PointF screenPos = new PointF(metersToPixels(worldX), metersToPixels(mWorldHeight - worldY));
-        return screenPos;
+    public float worldToScreenY(float worldY) {
+        return metersToPixels(mWorldHeight - worldY);
     }
 
-    public Vector2 screenToWorld(Point screenPos) {
-        Vector2 worldPos = new Vector2(screenPos.x, screenPos.y);
-        return worldPos;
+    public float screenToWorldX(float screenX) {
+        return pixelsToMeters(screenX);
+    }
+
+    public float screenToWorldY(float screenY) {
+        return mWorldHeight - pixelsToMeters(screenY);
+    }
+
+    public Vector2 worldToScreen(Vector2 worldPos) {
+        return worldToScreen(worldPos.x, worldPos.y, new Vector2());
+    }
+
+    public Vector2 worldToScreen(float worldX, float worldY) {
+        return worldToScreen(worldX, worldY, new Vector2());
+    }
+
+    /**
+     * Converts a world position into screen coordinates without allocating
+     * @param worldPos
+     * @param out point where the result is written
+     * @return out
+     */
+    public Vector2 worldToScreen(Vector2 worldPos, Vector2 out) {
+        return worldToScreen(worldPos.x, worldPos.y, out);
+    }
+
+    /**
+     * Converts a world position into screen coordinates without allocating
+     * @param worldX
+     * @param worldY
+     * @param out point where the result is written
+     * @return out
+     */
+    public Vector2 worldToScreen(float worldX, float worldY, Vector2 out) {
+        return out.set(worldToScreenX(worldX), worldToScreenY(worldY));
+    }
+
+    public Vector2 screenToWorld(Vector2 screenPos) {
+        return screenToWorld(screenPos.x, screenPos.y, new Vector2());
     }
     
     public Vector2 screenToWorld(float screenX, float screenY) {
-        Vector2 worldPos = new Vector2(pixelsToMeters(screenX), mWorldHeight - pixelsToMeters(screenY));
-        return worldPos;
+        return screenToWorld(screenX, screenY, new Vector2());
+    }
+
+    /**
+     * Converts a screen position into world coordinates without allocating
+     * @param screenX
+     * @param screenY
+     * @param out vector where the result is written
+     * @return out
+     */
+    public Vector2 screenToWorld(float screenX, float screenY, Vector2 out) {
+        return out.set(pixelsToMeters(screenX), mWorldHeight - pixelsToMeters(screenY));
+    }
+
+    /**
+     * Converts count world points, stored as x, y pairs, into screen coordinates.
+     * src and dst can be the same array.
+     * @param src
+     * @param srcOffset index of the first x in src
+     * @param dst
+     * @param dstOffset index of the first x in dst
+     * @param count number of points
+     */
+    public void worldToScreen(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        int end = srcOffset + count * 2;
+        for (int i = srcOffset, j = dstOffset; i < end; i += 2, j += 2) {
+            dst[j] = src[i] * mPixelsInMeter;
+            dst[j + 1] = (mWorldHeight - src[i + 1]) * mPixelsInMeter;
+        }
+    }
+
+    /**
+     * Converts count screen points, stored as x, y pairs, into world coordinates.
+     * src and dst can be the same array.
+     * @param src
+     * @param srcOffset index of the first x in src
+     * @param dst
+     * @param dstOffset index of the first x in dst
+     * @param count number of points
+     */
+    public void screenToWorld(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        int end = srcOffset + count * 2;
+        for (int i = srcOffset, j = dstOffset; i < end; i += 2, j += 2) {
+            dst[j] = src[i] / mPixelsInMeter;
+            dst[j + 1] = mWorldHeight - src[i + 1] / mPixelsInMeter;
+        }
+    }
+
+    /**
+     * Converts count points relative to a body, stored as x, y pairs, into pixels relative
+     * to the body position on the screen: they are scaled and the y axis is flipped.
+     * src and dst can be the same array.
+     * @param src
+     * @param srcOffset index of the first x in src
+     * @param dst
+     * @param dstOffset index of the first x in dst
+     * @param count number of points
+     */
+    public void localToScreen(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        int end = srcOffset + count * 2;
+        for (int i = srcOffset, j = dstOffset; i < end; i += 2, j += 2) {
+            dst[j] = src[i] * mPixelsInMeter;
+            dst[j + 1] = -src[i + 1] * mPixelsInMeter;
+        }
     }
 }
@@ -0,0 +1,55 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * Message that is taken from a GameMessagePool and goes back to it after being processed,
+ * so posting it does not allocate.
+ * 
+ * Subclasses hold the payload of the message in primitive fields, that are filled after
+ * obtaining the message and cleared in reset().
+ * A pooled message must not post itself again from process(), since it is freed
+ * right after that.
+ */
+public abstract class PooledGameMessage extends GameMessage implements Poolable {
+
+    /** Pool the message belongs to */
+    GameMessagePool<?> mPool;
+
+    /** Whether the message is free in its pool */
+    boolean mFree = false;
+
+    /** When the message was obtained, in ns. Only in debug mode */
+    long mObtainTime;
+
+    /** Where the message was obtained. Only in debug mode */
+    Throwable mObtainTrace;
+
+    public PooledGameMessage() {
+        super();
+    }
+
+    public PooledGameMessage(int priority) {
+        super(priority);
+    }
+
+    /**
+     * Gives the message back to its pool.
+     * Not needed after posting it, since processed messages go back automatically.
+     */
+    public final void free() {
+        if (mPool != null) {
+            mPool.freeMessage(this);
+        }
+    }
+
+    @Override
+    final void onProcessed() {
+        free();
+    }
+
+    @Override
+    final void onDiscarded() {
+        free();
+    }
+}
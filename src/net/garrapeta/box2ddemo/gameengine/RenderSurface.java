@@ -0,0 +1,16 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+/**
+ * Where the game world is drawn every frame.
+ * In Android it is the GameView. Without Android it can be a HeadlessSurface.
+ */
+public interface RenderSurface {
+
+    /**
+     * Paint the passed world at its current state, calling GameWorld.drawFrame()
+     * with the renderer of the surface.
+     * @param world
+     * @param currentFps
+     */
+    public void draw(GameWorld world, float currentFps);
+}
@@ -0,0 +1,57 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+/**
+ * Handle of a message scheduled for a future game time, returned by
+ * GameWorld.schedule() and GameWorld.schedulePeriodic(). It can be used to cancel it.
+ */
+public final class ScheduledMessage {
+
+    final GameMessageScheduler mScheduler;
+    final GameMessage mMessage;
+
+    /** Game time the message is due at, in nanoseconds */
+    long mDueTime;
+
+    /** Interval between repetitions, in nanoseconds. 0 if the message is not periodic */
+    final long mPeriod;
+
+    /** Order of scheduling, to keep FIFO order among messages with the same due time and priority */
+    long mSequence;
+
+    /** Position in the heap of the scheduler, -1 when the message is not scheduled */
+    int mHeapIndex = -1;
+
+    ScheduledMessage(GameMessageScheduler scheduler, GameMessage message, long dueTime, long period) {
+        mScheduler = scheduler;
+        mMessage = message;
+        mDueTime = dueTime;
+        mPeriod = period;
+    }
+
+    /**
+     * @return the scheduled message
+     */
+    public GameMessage getMessage() {
+        return mMessage;
+    }
+
+    /**
+     * @return whether the message is still waiting to be due. Periodic messages stay
+     * scheduled until they are cancelled.
+     */
+    public boolean isScheduled() {
+        synchronized (mScheduler) {
+            return mHeapIndex >= 0;
+        }
+    }
+
+    /**
+     * Cancels the message, so it is not posted anymore. It does nothing if the message was
+     * already posted, and it does not remove it from the queue if it is waiting to be processed.
+     * A pooled message that is cancelled goes back to its pool.
+     * @return if the message was scheduled
+     */
+    public boolean cancel() {
+        return mScheduler.cancel(this);
+    }
+}
@@ -0,0 +1,151 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Cache of native shapes, by their parameters, to be used as prototypes of fixtures.
+ *
+ * Box2d copies the shape when a fixture is created, so one same shape can be used to create
+ * any number of fixtures. Keeping them avoids creating and disposing a native shape (and
+ * copying its vertices through JNI) for every body.
+ *
+ * The shapes belong to the cache: they must not be disposed nor modified by the users.
+ * They are released when the cache is disposed. The cache can be used again after that.
+ */
+public class ShapeCache implements Disposable {
+
+    /** Loop shapes with the same hash, chained */
+    private static class LoopEntry {
+        final float[] mVertices;
+        final ChainShape mShape;
+        LoopEntry mNext;
+
+        LoopEntry(float[] vertices, ChainShape shape) {
+            mVertices = vertices;
+            mShape = shape;
+        }
+    }
+
+    /** Circles, by the bits of their radius */
+    private final LongMap<CircleShape> mCircles = new LongMap<CircleShape>();
+
+    /** Boxes, by the bits of their half width and half height */
+    private final LongMap<PolygonShape> mBoxes = new LongMap<PolygonShape>();
+
+    /** Loops, by the hash of their vertices */
+    private final LongMap<LoopEntry> mLoops = new LongMap<LoopEntry>();
+
+    /** All the shapes created, to be disposed */
+    private final Array<Shape> mShapes = new Array<Shape>(false, 16);
+
+    /**
+     * @param radius
+     * @return circle shape centered at the origin
+     */
+    public synchronized CircleShape getCircle(float radius) {
+        long key = Float.floatToIntBits(radius);
+        CircleShape shape = mCircles.get(key);
+        if (shape == null) {
+            shape = new CircleShape();
+            shape.setRadius(radius);
+            mCircles.put(key, shape);
+            mShapes.add(shape);
+        }
+        return shape;
+    }
+
+    /**
+     * @param halfWidth
+     * @param halfHeight
+     * @return box shape centered at the origin
+     */
+    public synchronized PolygonShape getBox(float halfWidth, float halfHeight) {
+        long key = ((long) Float.floatToIntBits(halfWidth) << 32) | (Float.floatToIntBits(halfHeight) & 0xffffffffL);
+        PolygonShape shape = mBoxes.get(key);
+        if (shape == null) {
+            shape = new PolygonShape();
+            shape.setAsBox(halfWidth, halfHeight);
+            mBoxes.put(key, shape);
+            mShapes.add(shape);
+        }
+        return shape;
+    }
+
+    /**
+     * @param vertices of the loop. They are copied
+     * @return chain shape with the loop
+     */
+    public synchronized ChainShape getLoop(Vector2[] vertices) {
+        long key = hash(vertices);
+        LoopEntry first = mLoops.get(key);
+        for (LoopEntry entry = first; entry != null; entry = entry.mNext) {
+            if (equals(entry.mVertices, vertices)) {
+                return entry.mShape;
+            }
+        }
+
+        float[] copy = new float[vertices.length * 2];
+        for (int i = 0; i < vertices.length; i++) {
+            copy[i * 2] = vertices[i].x;
+            copy[i * 2 + 1] = vertices[i].y;
+        }
+        ChainShape shape = new ChainShape();
+        shape.createLoop(vertices);
+        LoopEntry entry = new LoopEntry(copy, shape);
+        entry.mNext = first;
+        mLoops.put(key, entry);
+        mShapes.add(shape);
+        return shape;
+    }
+
+    /**
+     * @return the number of shapes in the cache
+     */
+    public synchronized int size() {
+        return mShapes.size;
+    }
+
+    /**
+     * Disposes all the shapes of the cache.
+     * The fixtures already created with them are not affected.
+     */
+    @Override
+    public synchronized void dispose() {
+        for (int i = 0; i < mShapes.size; i++) {
+            mShapes.get(i).dispose();
+        }
+        mShapes.clear();
+        mCircles.clear();
+        mBoxes.clear();
+        mLoops.clear();
+    }
+
+    private static long hash(Vector2[] vertices) {
+        int hash = vertices.length;
+        for (int i = 0; i < vertices.length; i++) {
+            hash = 31 * hash + Float.floatToIntBits(vertices[i].x);
+            hash = 31 * hash + Float.floatToIntBits(vertices[i].y);
+        }
+        return hash;
+    }
+
+    private static boolean equals(float[] vertices, Vector2[] other) {
+        if (vertices.length != other.length * 2) {
+            return false;
+        }
+        for (int i = 0; i < other.length; i++) {
+            if (Float.floatToIntBits(vertices[i * 2]) != Float.floatToIntBits(other[i].x)
+                    || Float.floatToIntBits(vertices[i * 2 + 1]) != Float.floatToIntBits(other[i].y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
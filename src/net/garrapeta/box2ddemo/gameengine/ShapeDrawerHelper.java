@@ -1,94 +1,189 @@
 package net.garrapeta.box2ddemo.gameengine;
 
-import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.PointF;
+import net.garrapeta.box2ddemo.gameengine.render.RenderPath;
+import net.garrapeta.box2ddemo.gameengine.render.Renderer;
 
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.ChainShape;
 import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.EdgeShape;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.Shape;
 import com.badlogic.gdx.physics.box2d.Shape.Type;
 
 /**
- * This class is a helper for drawing shapes into the canvas *
+ * This class is a helper for reading shapes and drawing their geometry with a renderer
  */
 public class ShapeDrawerHelper {
 
     /**
-     * Draw the shape into the canvas using the passed paint.
-     * 
-     * @param canvas
-     * @param paint
+     * Scratch objects, reused between calls. Shapes are read, through JNI, with sVertex and
+     * sReadPoints, only in the game loop thread. Geometries are drawn with sPoints, only in the
+     * thread that renders.
+     */
+    private static final Vector2 sVertex = new Vector2();
+    private static float[] sPoints = new float[64];
+    private static float[] sReadPoints = new float[64];
+
+    /**
+     * Reads the geometry of a shape through JNI, to be drawn later without touching it.
+     * To be called from the game loop thread, since the body of the shape may be stepped
+     * or destroyed there.
      * @param shape
+     * @return the geometry of the shape
      */
-    public static void draw(Canvas canvas, Paint paint, Shape shape) {
-        Type t = shape.getType();
+    public static ShapeGeometry read(Shape shape) {
+        Type type = shape.getType();
+        float boundingRadius = getBoundingRadius(shape);
+        if (type == Type.Circle) {
+            CircleShape circle = (CircleShape) shape;
+            Vector2 position = circle.getPosition();
+            return new ShapeGeometry(type, position.x, position.y, circle.getRadius(), null, false, boundingRadius);
+        }
+        int count = readVertices(shape);
+        float[] vertices = new float[count * 2];
+        System.arraycopy(sReadPoints, 0, vertices, 0, count * 2);
+        return new ShapeGeometry(type, 0, 0, 0, vertices, isClosed(shape), boundingRadius);
+    }
+
+    /**
+     * Draws the geometry of a shape with the passed renderer, reusing the screen geometry
+     * cached in path. It does not touch the Box2d shape, so it can be called from the render thread.
+     * The cache is rebuilt only if it was built for another geometry or with another
+     * pixels-per-meter ratio. Circles do not need a cache and ignore it.
+     *
+     * @param renderer
+     * @param geometry
+     * @param path cache of the screen geometry, or null to create it
+     * @return the cache to pass next time the geometry is drawn
+     */
+    public static RenderPath draw(Renderer renderer, ShapeGeometry geometry, RenderPath path) {
+        if (geometry.getType() == Type.Circle) {
+            PointsConversionUtils conversion = PointsConversionUtils.getInstance();
+            // The y axis of the screen points down
+            float x = conversion.metersToPixels(geometry.getX());
+            float y = - conversion.metersToPixels(geometry.getY());
+            float radius = conversion.metersToPixels(geometry.getRadius());
+            renderer.drawCircle(x, y, radius);
+            renderer.drawLine(x, y, x + radius, y);
+            return path;
+        }
 
-        switch (t) {
+        int conversionVersion = PointsConversionUtils.getInstance().getVersion();
+        if (path == null) {
+            path = new RenderPath();
+        }
+        if (!path.isFor(geometry, conversionVersion)) {
+            int count = geometry.getVertexCount();
+            ensurePointsCapacity(count);
+            PointsConversionUtils.getInstance().localToScreen(geometry.getVertices(), 0, sPoints, 0, count);
+            path.set(geometry, conversionVersion, sPoints, 0, count, geometry.isClosed());
+        }
+        renderer.drawPath(path);
+        return path;
+    }
+
+    /**
+     * @param shape
+     * @return radius, in world units, of a circle centered at the body origin that contains
+     * the shape whatever the body angle. Float.POSITIVE_INFINITY for unknown shapes.
+     */
+    public static float getBoundingRadius(Shape shape) {
+        Vector2 vertex = sVertex;
+        float max = 0;
+        switch (shape.getType()) {
         case Circle:
-            drawCircleShape(canvas, paint, (CircleShape) shape);
-            break;
+            CircleShape circle = (CircleShape) shape;
+            return circle.getPosition().len() + circle.getRadius();
         case Chain:
-            drawSegmentedShape(canvas, paint, (ChainShape) shape);
-            break;
+            ChainShape chain = (ChainShape) shape;
+            for (int i = 0; i < chain.getVertexCount(); i++) {
+                chain.getVertex(i, vertex);
+                max = Math.max(max, vertex.len());
+            }
+            return max;
+        case Polygon:
+            PolygonShape polygon = (PolygonShape) shape;
+            for (int i = 0; i < polygon.getVertexCount(); i++) {
+                polygon.getVertex(i, vertex);
+                max = Math.max(max, vertex.len());
+            }
+            // Polygons have a skin around them
+            return max + polygon.getRadius();
+        case Edge:
+            EdgeShape edge = (EdgeShape) shape;
+            edge.getVertex1(vertex);
+            max = vertex.len();
+            edge.getVertex2(vertex);
+            return Math.max(max, vertex.len());
         default:
-            throw new IllegalArgumentException("Can not draw shape: " + shape);
+            return Float.POSITIVE_INFINITY;
         }
-        
-        //TODO: create methods for drawing other shapes supported by Box2D (polygons and edges)
     }
 
     /**
-     * Draws a circle shape...
-     * @param canvas
-     * @param paint
-     * @param shape
+     * @param shape made of segments
+     * @return whether the last vertex is joined to the first one
      */
-    private static void drawCircleShape(Canvas canvas, Paint paint, CircleShape shape) {
-        float radius = PointsConversionUtils.getInstance().metersToPixels(shape.getRadius());
-        canvas.drawCircle(0, 0, radius, paint);
-        
-        canvas.drawLine(0, 0, radius, 0, paint);
+    private static boolean isClosed(Shape shape) {
+        return shape.getType() != Type.Edge;
     }
 
     /**
-     * Draws a polygon shape (edges included)
-     * @param canvas
-     * @param paint
-     * @param chain
+     * Reads the vertices of a chain, polygon or edge into the scratch points array,
+     * in world units relative to the body origin
+     * @param shape
+     * @return number of vertices
      */
-    private static void drawSegmentedShape(Canvas canvas, Paint paint, ChainShape chain) {
-        
-        int count = chain.getVertexCount();
-        PointF[] aux = new PointF[count];
-        for (int i = 0; i < count; i++) {
-            Vector2 vertex = new Vector2();
-            chain.getVertex(i, vertex);
-            PointF screenPos = new PointF(PointsConversionUtils.getInstance()
-                    .metersToPixels(vertex.x), -PointsConversionUtils
-                    .getInstance().metersToPixels(vertex.y));
-            aux[i] = screenPos;
+    private static int readVertices(Shape shape) {
+        Vector2 vertex = sVertex;
+        int count;
+        switch (shape.getType()) {
+        case Chain:
+            ChainShape chain = (ChainShape) shape;
+            count = chain.getVertexCount();
+            ensureReadPointsCapacity(count);
+            for (int i = 0; i < count; i++) {
+                chain.getVertex(i, vertex);
+                sReadPoints[i * 2] = vertex.x;
+                sReadPoints[i * 2 + 1] = vertex.y;
+            }
+            break;
+        case Polygon:
+            PolygonShape polygon = (PolygonShape) shape;
+            count = polygon.getVertexCount();
+            ensureReadPointsCapacity(count);
+            for (int i = 0; i < count; i++) {
+                polygon.getVertex(i, vertex);
+                sReadPoints[i * 2] = vertex.x;
+                sReadPoints[i * 2 + 1] = vertex.y;
+            }
+            break;
+        case Edge:
+            EdgeShape edge = (EdgeShape) shape;
+            count = 2;
+            edge.getVertex1(vertex);
+            sReadPoints[0] = vertex.x;
+            sReadPoints[1] = vertex.y;
+            edge.getVertex2(vertex);
+            sReadPoints[2] = vertex.x;
+            sReadPoints[3] = vertex.y;
+            break;
+        default:
+            throw new IllegalArgumentException("Not a shape made of segments: " + shape);
         }
-
-        drawPath(canvas, paint, aux, true);
+        return count;
     }
 
-    private static void drawPath(Canvas canvas, Paint paint, PointF[] vertexes, boolean close) {
-
-        Path path = new Path();
-        for (PointF sreenPoint : vertexes) {
-            if (path.isEmpty()) {
-                path.moveTo(sreenPoint.x, sreenPoint.y);
-            }
-            path.lineTo(sreenPoint.x, sreenPoint.y);
+    private static void ensurePointsCapacity(int count) {
+        if (sPoints.length < count * 2) {
+            sPoints = new float[count * 2];
         }
+    }
 
-        if (close) {
-            path.close();
+    private static void ensureReadPointsCapacity(int count) {
+        if (sReadPoints.length < count * 2) {
+            sReadPoints = new float[count * 2];
         }
-
-        canvas.drawPath(path, paint);
     }
 }
@@ -0,0 +1,83 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import com.badlogic.gdx.physics.box2d.Shape.Type;
+
+/**
+ * Copy of the geometry of a Box2d shape, in world units relative to the body origin.
+ *
+ * It is read from the native shape in the game loop thread, and it does not change after
+ * that, so the render thread can draw it without touching the body, that may be being
+ * stepped or destroyed meanwhile.
+ */
+public final class ShapeGeometry {
+
+    private final Type mType;
+
+    /** Center of circles */
+    private final float mX;
+    private final float mY;
+
+    /** Radius of circles */
+    private final float mRadius;
+
+    /** x, y pairs of the vertices of chains, polygons and edges. Null for circles */
+    private final float[] mVertices;
+
+    /** Whether the last vertex is joined to the first one */
+    private final boolean mClosed;
+
+    /** Radius of a circle centered at the body origin that contains the shape */
+    private final float mBoundingRadius;
+
+    ShapeGeometry(Type type, float x, float y, float radius, float[] vertices, boolean closed, float boundingRadius) {
+        mType = type;
+        mX = x;
+        mY = y;
+        mRadius = radius;
+        mVertices = vertices;
+        mClosed = closed;
+        mBoundingRadius = boundingRadius;
+    }
+
+    public Type getType() {
+        return mType;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public float getRadius() {
+        return mRadius;
+    }
+
+    /**
+     * @return x, y pairs of the vertices, not to be modified. Null for circles
+     */
+    public float[] getVertices() {
+        return mVertices;
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    public int getVertexCount() {
+        return mVertices != null ? mVertices.length / 2 : 0;
+    }
+
+    public boolean isClosed() {
+        return mClosed;
+    }
+
+    /**
+     * @return radius, in world units, of a circle centered at the body origin that contains
+     * the shape whatever the body angle. Float.POSITIVE_INFINITY for unknown shapes.
+     */
+    public float getBoundingRadius() {
+        return mBoundingRadius;
+    }
+}
@@ -0,0 +1,82 @@
+package net.garrapeta.box2ddemo.gameengine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffer, to hand data from one writer thread to one reader thread.
+ * 
+ * The writer fills its own buffer and publishes it, and the reader takes the newest
+ * published buffer. There is always a third buffer between them, so neither of them
+ * ever waits for the other: the writer can publish again while the reader is still
+ * using the previous buffer, and the reader just skips the buffers it was too slow to see.
+ *
+ * @param <T> type of the buffers
+ */
+public class TripleBuffer<T> {
+
+    /** Mask of the index of the buffer in mMiddle */
+    private static final int INDEX_MASK = 0x3;
+
+    /** Flag set in mMiddle when it has been published and the reader has not taken it */
+    private static final int FRESH = 0x4;
+
+    private final Object[] mBuffers;
+
+    /** Buffer owned by the writer */
+    private int mBack = 0;
+
+    /** Buffer exchanged between writer and reader, and the FRESH flag */
+    private final AtomicInteger mMiddle = new AtomicInteger(1);
+
+    /** Buffer owned by the reader */
+    private int mFront = 2;
+
+    /**
+     * Constructor
+     * @param first
+     * @param second
+     * @param third
+     */
+    public TripleBuffer(T first, T second, T third) {
+        mBuffers = new Object[] { first, second, third };
+    }
+
+    /**
+     * To be called only by the writer thread.
+     * @return the buffer the writer can fill
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) mBuffers[mBack];
+    }
+
+    /**
+     * Publishes the write buffer. After this getWriteBuffer() returns another buffer.
+     * To be called only by the writer thread.
+     */
+    public void publish() {
+        mBack = mMiddle.getAndSet(mBack | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Takes the newest published buffer, if there is one the reader has not taken yet.
+     * To be called only by the reader thread.
+     * @return if the read buffer has changed
+     */
+    public boolean update() {
+        if ((mMiddle.get() & FRESH) == 0) {
+            return false;
+        }
+        mFront = mMiddle.getAndSet(mFront) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * To be called only by the reader thread.
+     * @return the buffer the reader can use, as of the last call to update()
+     */
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer() {
+        return (T) mBuffers[mFront];
+    }
+}
@@ -1,19 +1,24 @@
 package net.garrapeta.box2ddemo.gameengine.actor;
 
+import java.util.ArrayList;
+
 import net.garrapeta.box2ddemo.gameengine.Actor;
+import net.garrapeta.box2ddemo.gameengine.ActorPool;
 import net.garrapeta.box2ddemo.gameengine.GameWorld;
 import net.garrapeta.box2ddemo.gameengine.PointsConversionUtils;
 import net.garrapeta.box2ddemo.gameengine.ShapeDrawerHelper;
-import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.graphics.Paint.Style;
-import android.graphics.PointF;
+import net.garrapeta.box2ddemo.gameengine.ShapeGeometry;
+import net.garrapeta.box2ddemo.gameengine.render.CircleBatch;
+import net.garrapeta.box2ddemo.gameengine.render.RenderPath;
+import net.garrapeta.box2ddemo.gameengine.render.Renderer;
+import net.garrapeta.box2ddemo.gameengine.render.Renderer.Style;
 
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.Shape.Type;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 
 /**
@@ -26,6 +31,48 @@ public class AbstractSimpleActor implements Actor {
     protected Body mBody;
     protected int mColor;
 
+    /** State of the actor in its lifecycle */
+    private State mState = State.SPAWNED;
+
+    /** Number of times the actor has become alive */
+    private int mGeneration = 0;
+
+    /** Position in the list of actors of the world */
+    private int mWorldIndex = -1;
+
+    /** Pool the actor was spawned from, if any */
+    private ActorPool<?> mPool;
+
+    /** Screen geometry of the fixtures, by fixture index, so it is not rebuilt every frame. Only used to draw */
+    private RenderPath[] mFixturePaths = new RenderPath[1];
+
+    /**
+     * Geometry of the fixtures, read in the game loop thread. The render thread only reads this,
+     * never the body. Replaced, never modified, when the fixtures change.
+     */
+    private volatile DrawData mDrawData;
+
+    /** Position of the body after the last physical step */
+    private float mX;
+    private float mY;
+
+    /** Angle of the body after the last physical step */
+    private float mAngle;
+
+    /** Position of the body before the last physical step */
+    private float mPreviousX;
+    private float mPreviousY;
+
+    /** Angle of the body before the last physical step */
+    private float mPreviousAngle;
+
+    /** Whether the previous position and angle have been stored */
+    private boolean mHasPreviousState = false;
+
+    private static final ShapeGeometry[] NO_SHAPES = new ShapeGeometry[0];
+
+    /** Aux array for the transform, to avoid allocations when drawing */
+    private final float[] mTransform = new float[3];
     
     /**
      * Constructor
@@ -53,32 +100,198 @@ public class AbstractSimpleActor implements Actor {
         if (dynamic) {
             mBody.setType(BodyType.DynamicBody);
         }
+
+        // Until the world updates it after the first step
+        mX = worldPos.x;
+        mY = worldPos.y;
     }
 
     @Override
-    public final void draw(Canvas canvas, Paint paint) {
-        paint.setStyle(Style.STROKE);
-        paint.setColor(mColor);
+    public final void draw(Renderer renderer) {
+        getTransform(mTransform, 0);
+        draw(renderer, mTransform[0], mTransform[1], mTransform[2]);
+    }
 
-        canvas.save();
+    @Override
+    public final void draw(Renderer renderer, float worldX, float worldY, float angle) {
+        renderer.setStyle(Style.STROKE);
+        renderer.setColor(mColor);
 
-        // Translation to worldCenter
-        Vector2 worldPos = mBody.getWorldCenter();
-        PointF screenPos = PointsConversionUtils.getInstance().worldToScreen(worldPos.x, worldPos.y);
-        canvas.save();
-        canvas.translate(screenPos.x, screenPos.y);
+        // Translation to the position of the body
+        PointsConversionUtils conversion = PointsConversionUtils.getInstance();
+        renderer.save();
+        renderer.translate(conversion.worldToScreenX(worldX), conversion.worldToScreenY(worldY));
 
         // Rotation
-        canvas.rotate(- (float)Math.toDegrees(mBody.getAngle()));
+        renderer.rotate(- (float)Math.toDegrees(angle));
 
         // Drawing of shapes
-        for (Fixture fixture : mBody.getFixtureList()) {
-            Shape shape = fixture.getShape();
-            ShapeDrawerHelper.draw(canvas, paint, shape);
+        DrawData data = mDrawData;
+        ShapeGeometry[] shapes = data != null ? data.mShapes : NO_SHAPES;
+        if (mFixturePaths.length < shapes.length) {
+            RenderPath[] paths = new RenderPath[shapes.length];
+            System.arraycopy(mFixturePaths, 0, paths, 0, mFixturePaths.length);
+            mFixturePaths = paths;
+        }
+        for (int i = 0; i < shapes.length; i++) {
+            mFixturePaths[i] = ShapeDrawerHelper.draw(renderer, shapes[i], mFixturePaths[i]);
         }
 
         // restoration of translation
-        canvas.restore();
+        renderer.restore();
+    }
+
+    @Override
+    public void getTransform(float[] transform, int offset) {
+        float worldX = mX;
+        float worldY = mY;
+        float angle = mAngle;
+
+        // Blend with the previous physical state if the world is interpolating
+        float alpha = mWorld.getInterpolationAlpha();
+        if (mHasPreviousState && alpha < 1) {
+            worldX = mPreviousX + (worldX - mPreviousX) * alpha;
+            worldY = mPreviousY + (worldY - mPreviousY) * alpha;
+            angle = mPreviousAngle + (angle - mPreviousAngle) * alpha;
+        }
+
+        transform[offset] = worldX;
+        transform[offset + 1] = worldY;
+        transform[offset + 2] = angle;
+    }
+
+    @Override
+    public void storePreviousState() {
+        mPreviousX = mX;
+        mPreviousY = mY;
+        mPreviousAngle = mAngle;
+        mHasPreviousState = true;
+    }
+
+    @Override
+    public State getState() {
+        return mState;
+    }
+
+    @Override
+    public void setState(State state) {
+        if (state == State.ALIVE && mState != State.ALIVE) {
+            mGeneration++;
+        }
+        mState = state;
+    }
+
+    @Override
+    public int getGeneration() {
+        return mGeneration;
+    }
+
+    @Override
+    public int getWorldIndex() {
+        return mWorldIndex;
+    }
+
+    @Override
+    public void setWorldIndex(int index) {
+        mWorldIndex = index;
+    }
+
+    @Override
+    public ActorPool<?> getPool() {
+        return mPool;
+    }
+
+    @Override
+    public void setPool(ActorPool<?> pool) {
+        mPool = pool;
+    }
+
+    @Override
+    public Body getBody() {
+        return mBody;
+    }
+
+    @Override
+    public void updateTransform(float worldX, float worldY, float angle) {
+        mX = worldX;
+        mY = worldY;
+        mAngle = angle;
+        // Game loop thread, so fixtures added after the actor was added are picked here
+        captureDrawData();
+    }
+
+    @Override
+    public void captureDrawData() {
+        ArrayList<Fixture> fixtures = mBody.getFixtureList();
+        DrawData data = mDrawData;
+        if (data != null && data.mShapes.length == fixtures.size()) {
+            return;
+        }
+        float radius = 0;
+        ShapeGeometry[] shapes = new ShapeGeometry[fixtures.size()];
+        float[] circles = new float[fixtures.size() * 3];
+        for (int i = 0; i < fixtures.size(); i++) {
+            ShapeGeometry shape = ShapeDrawerHelper.read(fixtures.get(i).getShape());
+            shapes[i] = shape;
+            radius = Math.max(radius, shape.getBoundingRadius());
+            if (circles != null && shape.getType() == Type.Circle) {
+                circles[i * 3] = shape.getX();
+                circles[i * 3 + 1] = shape.getY();
+                circles[i * 3 + 2] = shape.getRadius();
+            } else {
+                circles = null;
+            }
+        }
+        mDrawData = new DrawData(shapes, radius, circles);
+    }
+
+    @Override
+    public float getBoundingRadius() {
+        DrawData data = mDrawData;
+        return data != null ? data.mBoundingRadius : Float.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public boolean drawBatched(CircleBatch batch, float worldX, float worldY, float angle) {
+        DrawData data = mDrawData;
+        float[] circles = data != null ? data.mCircles : null;
+        if (circles == null) {
+            return false;
+        }
+
+        PointsConversionUtils conversion = PointsConversionUtils.getInstance();
+        float cos = MathUtils.cos(angle);
+        float sin = MathUtils.sin(angle);
+        for (int i = 0; i < circles.length; i += 3) {
+            float localX = circles[i];
+            float localY = circles[i + 1];
+            float x = conversion.worldToScreenX(worldX + cos * localX - sin * localY);
+            float y = conversion.worldToScreenY(worldY + sin * localX + cos * localY);
+            float radius = conversion.metersToPixels(circles[i + 2]);
+            // The y axis of the screen points down
+            batch.add(mColor, x, y, radius, x + radius * cos, y - radius * sin);
+        }
+        return true;
+    }
+
+    /**
+     * What drawing needs of the fixtures, read in the game loop thread
+     */
+    private static class DrawData {
+
+        private final ShapeGeometry[] mShapes;
+
+        /** Bounding radius of the fixtures */
+        private final float mBoundingRadius;
+
+        /** Local x, y and radius of the fixtures, if all of them are circles. Null otherwise */
+        private final float[] mCircles;
+
+        private DrawData(ShapeGeometry[] shapes, float boundingRadius, float[] circles) {
+            mShapes = shapes;
+            mBoundingRadius = boundingRadius;
+            mCircles = circles;
+        }
     }
 
 }
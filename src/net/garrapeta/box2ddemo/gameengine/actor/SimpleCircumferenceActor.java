@@ -1,8 +1,8 @@
 package net.garrapeta.box2ddemo.gameengine.actor;
 
 
-import net.garrapeta.box2ddemo.sample.circles.CirclesWorld;
-import android.graphics.Color;
+import net.garrapeta.box2ddemo.gameengine.GameWorld;
+import net.garrapeta.box2ddemo.gameengine.render.Colors;
 
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.CircleShape;
@@ -12,21 +12,16 @@ import com.badlogic.gdx.physics.box2d.CircleShape;
  */
 public class SimpleCircumferenceActor extends AbstractSimpleActor {
 
-    public SimpleCircumferenceActor(CirclesWorld world, Vector2 worldPos, boolean dynamic, float radius) {
+    public SimpleCircumferenceActor(GameWorld world, Vector2 worldPos, boolean dynamic, float radius) {
         super(world, worldPos, dynamic);
 
-        mColor = Color.RED;
+        mColor = Colors.RED;
         
-        // Create Shape with Properties
-        CircleShape circleShape = new CircleShape();
-        circleShape.setRadius(radius);
+        // Box2d copies the shape into the fixture, so the one of the cache is shared
+        // by all the circles of this radius, and it is not disposed here.
+        CircleShape circleShape = world.getShapeCache().getCircle(radius);
         // Assign shape to Body
         mBody.createFixture(circleShape, 1.0f);
-        
-        // We can dispose the shape even if we plan to use the shape later to draw the actor.
-        // Box2d keeps a copy of the shape in the JNI guts, so we can ask for that later.
-        // This shape is only a wrapper of the C++ stuff.
-        circleShape.dispose();
     }
     
 
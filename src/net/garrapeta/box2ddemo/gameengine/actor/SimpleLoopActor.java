@@ -1,7 +1,7 @@
 package net.garrapeta.box2ddemo.gameengine.actor;
 
 import net.garrapeta.box2ddemo.gameengine.GameWorld;
-import android.graphics.Color;
+import net.garrapeta.box2ddemo.gameengine.render.Colors;
 
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.ChainShape;
@@ -21,14 +21,12 @@ public class SimpleLoopActor extends AbstractSimpleActor {
     public SimpleLoopActor(GameWorld world,  Vector2 worldPos, boolean dynamic, Vector2[] vertexes) {
         super(world, worldPos, dynamic);
         
-        mColor = Color.GREEN;
+        mColor = Colors.GREEN;
 
-        mColor = Color.GREEN;
+        mColor = Colors.GREEN;
 
-        // Create Shape with Properties
-        ChainShape chainShape  = new ChainShape();
-        chainShape.createLoop(vertexes);
+        // Shared shape, owned by the cache
+        ChainShape chainShape = world.getShapeCache().getLoop(vertexes);
         mBody.createFixture(chainShape, 1.0f);
-        chainShape.dispose();        
     }
 }
@@ -0,0 +1,43 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+/**
+ * Layer of a CanvasRenderer, backed by a Bitmap
+ */
+class CanvasRenderLayer implements RenderLayer {
+
+    private final Bitmap mBitmap;
+    private final CanvasRenderer mRenderer = new CanvasRenderer();
+
+    CanvasRenderLayer(int width, int height) {
+        mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        mRenderer.setCanvas(new Canvas(mBitmap));
+    }
+
+    Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    @Override
+    public int getWidth() {
+        return mBitmap.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return mBitmap.getHeight();
+    }
+
+    @Override
+    public Renderer begin() {
+        mBitmap.eraseColor(0);
+        return mRenderer;
+    }
+
+    @Override
+    public void dispose() {
+        mBitmap.recycle();
+    }
+}
@@ -0,0 +1,210 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+/**
+ * Renderer that draws in an Android Canvas.
+ * The canvas is set before drawing every frame, since SurfaceHolder.lockCanvas()
+ * may return a different one every time.
+ */
+public class CanvasRenderer implements Renderer {
+
+    private Canvas mCanvas;
+
+    private final Paint mPaint = new Paint();
+
+    /** Path reused to draw polylines */
+    private final Path mPath = new Path();
+
+    /** Number of segments of the outline of a circle drawn with drawCircles() */
+    private static final int CIRCLE_SEGMENTS = 24;
+
+    /** Cosine and sine of the start of each segment, and of the end of the last one */
+    private static final float[] CIRCLE_COS = new float[CIRCLE_SEGMENTS + 1];
+    private static final float[] CIRCLE_SIN = new float[CIRCLE_SEGMENTS + 1];
+
+    static {
+        for (int i = 0; i <= CIRCLE_SEGMENTS; i++) {
+            double angle = 2 * Math.PI * i / CIRCLE_SEGMENTS;
+            CIRCLE_COS[i] = (float) Math.cos(angle);
+            CIRCLE_SIN[i] = (float) Math.sin(angle);
+        }
+    }
+
+    /** Start and end of the segments of the circles drawn with drawCircles(), reused */
+    private float[] mCircleLines = new float[4 * CIRCLE_SEGMENTS * 64];
+
+    /**
+     * Sets the canvas to draw in
+     * @param canvas
+     */
+    public void setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    /**
+     * @return the canvas the renderer draws in
+     */
+    public Canvas getCanvas() {
+        return mCanvas;
+    }
+
+    @Override
+    public int getWidth() {
+        return mCanvas.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return mCanvas.getHeight();
+    }
+
+    @Override
+    public void setColor(int color) {
+        mPaint.setColor(color);
+    }
+
+    @Override
+    public void setStyle(Style style) {
+        mPaint.setStyle(style == Style.FILL ? Paint.Style.FILL : Paint.Style.STROKE);
+    }
+
+    @Override
+    public void setTextSize(float textSize) {
+        mPaint.setTextSize(textSize);
+    }
+
+    @Override
+    public void save() {
+        mCanvas.save();
+    }
+
+    @Override
+    public void restore() {
+        mCanvas.restore();
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        mCanvas.translate(dx, dy);
+    }
+
+    @Override
+    public void rotate(float degrees) {
+        mCanvas.rotate(degrees);
+    }
+
+    @Override
+    public void clear(int color) {
+        mCanvas.drawColor(color);
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius) {
+        mCanvas.drawCircle(x, y, radius, mPaint);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY) {
+        mCanvas.drawLine(startX, startY, stopX, stopY, mPaint);
+    }
+
+    @Override
+    public void drawCircles(float[] circles, int offset, int count) {
+        // The outlines as segments, all of them drawn in one drawLines() call. Cheaper than
+        // a path, that the canvas has to tessellate again every frame
+        int size = count * CIRCLE_SEGMENTS * 4;
+        if (mCircleLines.length < size) {
+            mCircleLines = new float[size];
+        }
+        float[] lines = mCircleLines;
+        int line = 0;
+        for (int i = 0; i < count; i++) {
+            int index = offset + i * 3;
+            float x = circles[index];
+            float y = circles[index + 1];
+            float radius = circles[index + 2];
+            for (int s = 0; s < CIRCLE_SEGMENTS; s++) {
+                lines[line++] = x + radius * CIRCLE_COS[s];
+                lines[line++] = y + radius * CIRCLE_SIN[s];
+                lines[line++] = x + radius * CIRCLE_COS[s + 1];
+                lines[line++] = y + radius * CIRCLE_SIN[s + 1];
+            }
+        }
+        mCanvas.drawLines(lines, 0, size, mPaint);
+    }
+
+    @Override
+    public void drawLines(float[] points, int offset, int count) {
+        mCanvas.drawLines(points, offset, count * 4, mPaint);
+    }
+
+    @Override
+    public void drawPolyline(float[] points, int offset, int count, boolean close) {
+        if (count == 0) {
+            return;
+        }
+        mPath.rewind();
+        mPath.moveTo(points[offset], points[offset + 1]);
+        for (int i = 1; i < count; i++) {
+            mPath.lineTo(points[offset + i * 2], points[offset + i * 2 + 1]);
+        }
+        if (close) {
+            mPath.close();
+        }
+        mCanvas.drawPath(mPath, mPaint);
+    }
+
+    @Override
+    public void drawPath(RenderPath path) {
+        Object cache = path.getBackendCache();
+        Path androidPath;
+        if (cache instanceof Path) {
+            androidPath = (Path) cache;
+            if (path.getBackendVersion() != path.getVersion()) {
+                buildPath(androidPath, path);
+            }
+        } else {
+            androidPath = new Path();
+            buildPath(androidPath, path);
+        }
+        mCanvas.drawPath(androidPath, mPaint);
+    }
+
+    @Override
+    public RenderLayer createLayer(int width, int height) {
+        return new CanvasRenderLayer(width, height);
+    }
+
+    @Override
+    public void drawLayer(RenderLayer layer, float x, float y) {
+        mCanvas.drawBitmap(((CanvasRenderLayer) layer).getBitmap(), x, y, null);
+    }
+
+    /**
+     * Builds the Android path from the points of the render path, and stores it
+     * in its backend cache
+     */
+    private static void buildPath(Path androidPath, RenderPath path) {
+        float[] points = path.getPoints();
+        int count = path.getCount();
+        androidPath.rewind();
+        if (count > 0) {
+            androidPath.moveTo(points[0], points[1]);
+            for (int i = 1; i < count; i++) {
+                androidPath.lineTo(points[i * 2], points[i * 2 + 1]);
+            }
+            if (path.isClosed()) {
+                androidPath.close();
+            }
+        }
+        path.setBackendCache(androidPath, path.getVersion());
+    }
+
+    @Override
+    public void drawText(CharSequence text, float x, float y) {
+        mCanvas.drawText(text, 0, text.length(), x, y, mPaint);
+    }
+}
@@ -0,0 +1,141 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+import net.garrapeta.box2ddemo.gameengine.render.Renderer.Style;
+
+/**
+ * Collects circles, with a line showing their orientation, and loose line segments, in
+ * screen coordinates, grouped by color. When flushed, all the circles of a color are drawn
+ * with one drawCircles() and all the lines with one drawLines() call, instead of
+ * transforming the renderer and drawing them one by one.
+ */
+public class CircleBatch {
+
+    /** Circles and lines of one color */
+    private static class Group {
+        int mColor;
+        /** x, y and radius of each circle */
+        float[] mCircles = new float[3 * 64];
+        int mCircleCount;
+        /** Start and end of each line */
+        float[] mLines = new float[4 * 64];
+        int mLineCount;
+    }
+
+    private Group[] mGroups = new Group[4];
+    private int mGroupCount;
+
+    /** Group a circle was added to last, since consecutive circles usually share color */
+    private Group mLastGroup;
+
+    /**
+     * Adds a circle to the batch
+     * @param color
+     * @param x of the center, in pixels
+     * @param y of the center, in pixels
+     * @param radius, in pixels
+     * @param lineEndX x of the end of the orientation line, that starts at the center
+     * @param lineEndY y of the end of the orientation line, that starts at the center
+     */
+    public void add(int color, float x, float y, float radius, float lineEndX, float lineEndY) {
+        Group group = getGroup(color);
+        int count = group.mCircleCount;
+        if (group.mCircles.length < (count + 1) * 3) {
+            float[] circles = new float[group.mCircles.length * 2];
+            System.arraycopy(group.mCircles, 0, circles, 0, count * 3);
+            group.mCircles = circles;
+        }
+        float[] circles = group.mCircles;
+        circles[count * 3] = x;
+        circles[count * 3 + 1] = y;
+        circles[count * 3 + 2] = radius;
+        group.mCircleCount = count + 1;
+        addLine(group, x, y, lineEndX, lineEndY);
+    }
+
+    /**
+     * Adds a line segment to the batch
+     * @param color
+     * @param startX in pixels
+     * @param startY in pixels
+     * @param stopX in pixels
+     * @param stopY in pixels
+     */
+    public void addLine(int color, float startX, float startY, float stopX, float stopY) {
+        addLine(getGroup(color), startX, startY, stopX, stopY);
+    }
+
+    private static void addLine(Group group, float startX, float startY, float stopX, float stopY) {
+        int count = group.mLineCount;
+        if (group.mLines.length < (count + 1) * 4) {
+            float[] lines = new float[group.mLines.length * 2];
+            System.arraycopy(group.mLines, 0, lines, 0, count * 4);
+            group.mLines = lines;
+        }
+        float[] lines = group.mLines;
+        lines[count * 4] = startX;
+        lines[count * 4 + 1] = startY;
+        lines[count * 4 + 2] = stopX;
+        lines[count * 4 + 3] = stopY;
+        group.mLineCount = count + 1;
+    }
+
+    /**
+     * @return the number of circles in the batch
+     */
+    public int getCount() {
+        int count = 0;
+        for (int i = 0; i < mGroupCount; i++) {
+            count += mGroups[i].mCircleCount;
+        }
+        return count;
+    }
+
+    /**
+     * Draws all the circles and lines of the batch and empties it
+     * @param renderer
+     */
+    public void flush(Renderer renderer) {
+        boolean styleSet = false;
+        for (int i = 0; i < mGroupCount; i++) {
+            Group group = mGroups[i];
+            if (group.mCircleCount == 0 && group.mLineCount == 0) {
+                continue;
+            }
+            if (!styleSet) {
+                renderer.setStyle(Style.STROKE);
+                styleSet = true;
+            }
+            renderer.setColor(group.mColor);
+            if (group.mCircleCount > 0) {
+                renderer.drawCircles(group.mCircles, 0, group.mCircleCount);
+                group.mCircleCount = 0;
+            }
+            if (group.mLineCount > 0) {
+                renderer.drawLines(group.mLines, 0, group.mLineCount);
+                group.mLineCount = 0;
+            }
+        }
+    }
+
+    private Group getGroup(int color) {
+        if (mLastGroup != null && mLastGroup.mColor == color) {
+            return mLastGroup;
+        }
+        for (int i = 0; i < mGroupCount; i++) {
+            if (mGroups[i].mColor == color) {
+                mLastGroup = mGroups[i];
+                return mLastGroup;
+            }
+        }
+        if (mGroupCount == mGroups.length) {
+            Group[] groups = new Group[mGroupCount * 2];
+            System.arraycopy(mGroups, 0, groups, 0, mGroupCount);
+            mGroups = groups;
+        }
+        Group group = new Group();
+        group.mColor = color;
+        mGroups[mGroupCount++] = group;
+        mLastGroup = group;
+        return group;
+    }
+}
@@ -0,0 +1,17 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+/**
+ * ARGB colors, with the same values than android.graphics.Color, for the
+ * code that has to run without Android.
+ */
+public final class Colors {
+
+    public static final int BLACK = 0xFF000000;
+    public static final int WHITE = 0xFFFFFFFF;
+    public static final int RED = 0xFFFF0000;
+    public static final int GREEN = 0xFF00FF00;
+    public static final int BLUE = 0xFF0000FF;
+
+    private Colors() {
+    }
+}
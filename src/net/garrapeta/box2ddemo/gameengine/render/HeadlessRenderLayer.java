@@ -0,0 +1,38 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+/**
+ * Layer of a HeadlessRenderer. Nothing is stored in it.
+ */
+class HeadlessRenderLayer implements RenderLayer {
+
+    private final int mWidth;
+    private final int mHeight;
+
+    /** Renderer that "draws" in the layer */
+    private final Renderer mRenderer;
+
+    HeadlessRenderLayer(int width, int height, Renderer renderer) {
+        mWidth = width;
+        mHeight = height;
+        mRenderer = renderer;
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public Renderer begin() {
+        return mRenderer;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,100 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+/**
+ * Renderer that draws nothing.
+ * For running the game without a display: servers, CI, benchmarks...
+ */
+public class HeadlessRenderer implements Renderer {
+
+    private int mWidth;
+    private int mHeight;
+
+    /**
+     * Constructor
+     * @param width of the imaginary surface, in pixels
+     * @param height of the imaginary surface, in pixels
+     */
+    public HeadlessRenderer(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+
+    @Override
+    public void setColor(int color) {
+    }
+
+    @Override
+    public void setStyle(Style style) {
+    }
+
+    @Override
+    public void setTextSize(float textSize) {
+    }
+
+    @Override
+    public void save() {
+    }
+
+    @Override
+    public void restore() {
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+    }
+
+    @Override
+    public void rotate(float degrees) {
+    }
+
+    @Override
+    public void clear(int color) {
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius) {
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY) {
+    }
+
+    @Override
+    public void drawCircles(float[] circles, int offset, int count) {
+    }
+
+    @Override
+    public void drawLines(float[] points, int offset, int count) {
+    }
+
+    @Override
+    public void drawPolyline(float[] points, int offset, int count, boolean close) {
+    }
+
+    @Override
+    public void drawPath(RenderPath path) {
+    }
+
+    @Override
+    public RenderLayer createLayer(int width, int height) {
+        return new HeadlessRenderLayer(width, height, new HeadlessRenderer(width, height));
+    }
+
+    @Override
+    public void drawLayer(RenderLayer layer, float x, float y) {
+    }
+
+    @Override
+    public void drawText(CharSequence text, float x, float y) {
+    }
+}
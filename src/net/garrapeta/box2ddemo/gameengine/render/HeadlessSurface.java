@@ -0,0 +1,33 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+import net.garrapeta.box2ddemo.gameengine.GameWorld;
+import net.garrapeta.box2ddemo.gameengine.RenderSurface;
+
+/**
+ * Surface that draws the world with a renderer that does not need a display,
+ * like a HeadlessRenderer or a RecordingRenderer.
+ */
+public class HeadlessSurface implements RenderSurface {
+
+    private final Renderer mRenderer;
+
+    /**
+     * Constructor
+     * @param renderer
+     */
+    public HeadlessSurface(Renderer renderer) {
+        mRenderer = renderer;
+    }
+
+    /**
+     * @return the renderer the world is drawn with
+     */
+    public Renderer getRenderer() {
+        return mRenderer;
+    }
+
+    @Override
+    public void draw(GameWorld world, float currentFps) {
+        world.drawFrame(mRenderer, currentFps);
+    }
+}
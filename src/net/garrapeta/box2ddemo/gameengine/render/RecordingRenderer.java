@@ -0,0 +1,176 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+/**
+ * Renderer that draws nothing, but counts the draw calls.
+ * For tests and benchmarks that need to check how much is drawn.
+ */
+public class RecordingRenderer extends HeadlessRenderer {
+
+    private int mClears;
+    private int mCircles;
+    private int mLines;
+    private int mPolylines;
+    private int mPolylinePoints;
+    private int mTexts;
+    private int mLayers;
+    private int mBatches;
+    private int mBatchedCircles;
+    private int mStateChanges;
+
+    /**
+     * Constructor
+     * @param width of the imaginary surface, in pixels
+     * @param height of the imaginary surface, in pixels
+     */
+    public RecordingRenderer(int width, int height) {
+        super(width, height);
+    }
+
+    /**
+     * Sets all the counts to zero
+     */
+    public void reset() {
+        mClears = 0;
+        mCircles = 0;
+        mLines = 0;
+        mPolylines = 0;
+        mPolylinePoints = 0;
+        mTexts = 0;
+        mLayers = 0;
+        mBatches = 0;
+        mBatchedCircles = 0;
+        mStateChanges = 0;
+    }
+
+    @Override
+    public void setColor(int color) {
+        mStateChanges++;
+    }
+
+    @Override
+    public void setStyle(Style style) {
+        mStateChanges++;
+    }
+
+    @Override
+    public void clear(int color) {
+        mClears++;
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius) {
+        mCircles++;
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY) {
+        mLines++;
+    }
+
+    @Override
+    public void drawCircles(float[] circles, int offset, int count) {
+        mBatches++;
+        mBatchedCircles += count;
+    }
+
+    @Override
+    public void drawLines(float[] points, int offset, int count) {
+        mBatches++;
+    }
+
+    @Override
+    public void drawPolyline(float[] points, int offset, int count, boolean close) {
+        mPolylines++;
+        mPolylinePoints += count;
+    }
+
+    @Override
+    public void drawPath(RenderPath path) {
+        mPolylines++;
+        mPolylinePoints += path.getCount();
+    }
+
+    /**
+     * Drawing in the layers is recorded too
+     */
+    @Override
+    public RenderLayer createLayer(int width, int height) {
+        return new HeadlessRenderLayer(width, height, this);
+    }
+
+    @Override
+    public void drawLayer(RenderLayer layer, float x, float y) {
+        mLayers++;
+    }
+
+    @Override
+    public void drawText(CharSequence text, float x, float y) {
+        mTexts++;
+    }
+
+    /**
+     * @return the number of draw calls of any kind
+     */
+    public int getDrawCalls() {
+        return mClears + mCircles + mLines + mPolylines + mTexts + mLayers + mBatches;
+    }
+
+    public int getClears() {
+        return mClears;
+    }
+
+    public int getCircles() {
+        return mCircles;
+    }
+
+    public int getLines() {
+        return mLines;
+    }
+
+    public int getPolylines() {
+        return mPolylines;
+    }
+
+    /**
+     * @return the number of points of all the polylines drawn
+     */
+    public int getPolylinePoints() {
+        return mPolylinePoints;
+    }
+
+    public int getTexts() {
+        return mTexts;
+    }
+
+    public int getLayers() {
+        return mLayers;
+    }
+
+    /**
+     * @return the number of drawCircles() and drawLines() calls
+     */
+    public int getBatches() {
+        return mBatches;
+    }
+
+    /**
+     * @return the number of circles drawn with drawCircles()
+     */
+    public int getBatchedCircles() {
+        return mBatchedCircles;
+    }
+
+    /**
+     * @return the number of color and style changes
+     */
+    public int getStateChanges() {
+        return mStateChanges;
+    }
+
+    @Override
+    public String toString() {
+        return "draw calls: " + getDrawCalls() + " (clears: " + mClears + ", circles: " + mCircles + ", lines: " + mLines
+                + ", polylines: " + mPolylines + ", texts: " + mTexts + ", layers: " + mLayers
+                + ", batches: " + mBatches + " with " + mBatchedCircles + " circles), state changes: " + mStateChanges;
+    }
+}
@@ -0,0 +1,23 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+/**
+ * Offscreen surface that is drawn once and then copied to the screen every frame,
+ * for things that do not change often. Created by Renderer.createLayer().
+ */
+public interface RenderLayer {
+
+    public int getWidth();
+
+    public int getHeight();
+
+    /**
+     * Erases the layer, to draw it again
+     * @return the renderer that draws in the layer
+     */
+    public Renderer begin();
+
+    /**
+     * Releases the memory of the layer. It can not be used after this.
+     */
+    public void dispose();
+}
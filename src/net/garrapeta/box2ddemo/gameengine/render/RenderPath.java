@@ -0,0 +1,99 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+/**
+ * Polyline whose geometry is kept between frames, so it does not have to be
+ * recomputed every time it is drawn.
+ *
+ * The path remembers what it was built from (a key and a version of it), so the owner
+ * can tell when it is stale. Renderers can keep their own representation of the path
+ * (an android.graphics.Path, for instance) in the backend cache slot, and rebuild it
+ * only when the points change.
+ */
+public class RenderPath {
+
+    private float[] mPoints = new float[0];
+    private int mCount;
+    private boolean mClose;
+
+    /** Incremented every time the points change */
+    private int mVersion;
+
+    private Object mKey;
+    private int mKeyVersion;
+
+    private Object mBackendCache;
+    private int mBackendVersion = -1;
+
+    /**
+     * @param key
+     * @param keyVersion
+     * @return if the path was built from that key and version of it
+     */
+    public boolean isFor(Object key, int keyVersion) {
+        return mKey == key && mKeyVersion == keyVersion && key != null;
+    }
+
+    /**
+     * Sets the points of the path
+     * @param key what the path is built from
+     * @param keyVersion version of the key, or of anything else the points depend on
+     * @param points x, y pairs
+     * @param offset index of the first x
+     * @param count number of points
+     * @param close whether the last point is joined to the first one
+     */
+    public void set(Object key, int keyVersion, float[] points, int offset, int count, boolean close) {
+        if (mPoints.length < count * 2) {
+            mPoints = new float[count * 2];
+        }
+        System.arraycopy(points, offset, mPoints, 0, count * 2);
+        mCount = count;
+        mClose = close;
+        mKey = key;
+        mKeyVersion = keyVersion;
+        mVersion++;
+    }
+
+    /**
+     * @return the points of the path, as x, y pairs, starting at index 0
+     */
+    public float[] getPoints() {
+        return mPoints;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public boolean isClosed() {
+        return mClose;
+    }
+
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * @return the object the renderer built from this path, or null
+     */
+    public Object getBackendCache() {
+        return mBackendCache;
+    }
+
+    /**
+     * @return the version of the path the backend cache was built from
+     */
+    public int getBackendVersion() {
+        return mBackendVersion;
+    }
+
+    /**
+     * Stores the object the renderer built from this path
+     * @param backendCache
+     * @param version of the path it was built from
+     */
+    public void setBackendCache(Object backendCache, int version) {
+        mBackendCache = backendCache;
+        mBackendVersion = version;
+    }
+}
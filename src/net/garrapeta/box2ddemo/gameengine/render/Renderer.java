@@ -0,0 +1,147 @@
+package net.garrapeta.box2ddemo.gameengine.render;
+
+/**
+ * Backend the world and the actors are drawn with.
+ * 
+ * It works like an Android Canvas with a Paint inside: the color, style and text size
+ * set are used by the following draw calls, and the transformations (translate, rotate)
+ * apply until restore() is called. Coordinates are in pixels.
+ * 
+ * Decoupling the engine from the Canvas lets it run without Android, with a
+ * HeadlessRenderer or a RecordingRenderer.
+ */
+public interface Renderer {
+
+    /**
+     * Style of the shapes drawn
+     */
+    public enum Style {
+        FILL, STROKE
+    }
+
+    /**
+     * @return width of the drawing surface, in pixels
+     */
+    public int getWidth();
+
+    /**
+     * @return height of the drawing surface, in pixels
+     */
+    public int getHeight();
+
+    /**
+     * Sets the color of the following draw calls
+     * @param color, ARGB
+     * @see Colors
+     */
+    public void setColor(int color);
+
+    /**
+     * Sets the style of the following draw calls
+     * @param style
+     */
+    public void setStyle(Style style);
+
+    /**
+     * Sets the text size of the following draw calls
+     * @param textSize, in pixels
+     */
+    public void setTextSize(float textSize);
+
+    /**
+     * Saves the current transformation, to be restored with restore()
+     */
+    public void save();
+
+    /**
+     * Restores the transformation saved by the last call to save()
+     */
+    public void restore();
+
+    /**
+     * @param dx
+     * @param dy
+     */
+    public void translate(float dx, float dy);
+
+    /**
+     * @param degrees, clockwise
+     */
+    public void rotate(float degrees);
+
+    /**
+     * Fills the whole surface with the passed color
+     * @param color, ARGB
+     */
+    public void clear(int color);
+
+    /**
+     * @param x
+     * @param y
+     * @param radius
+     */
+    public void drawCircle(float x, float y, float radius);
+
+    /**
+     * @param startX
+     * @param startY
+     * @param stopX
+     * @param stopY
+     */
+    public void drawLine(float startX, float startY, float stopX, float stopY);
+
+    /**
+     * Draws the outline of several circles in one call
+     * @param circles x, y and radius of each circle
+     * @param offset index of the first x
+     * @param count number of circles
+     */
+    public void drawCircles(float[] circles, int offset, int count);
+
+    /**
+     * Draws several separate lines in one call
+     * @param points startX, startY, stopX and stopY of each line
+     * @param offset index of the first startX
+     * @param count number of lines
+     */
+    public void drawLines(float[] points, int offset, int count);
+
+    /**
+     * Draws a line through the passed points, as x and y pairs
+     * @param points
+     * @param offset of the first float to use
+     * @param count number of points
+     * @param close whether the last point is joined to the first one
+     */
+    public void drawPolyline(float[] points, int offset, int count, boolean close);
+
+    /**
+     * Draws a polyline whose geometry is kept between frames.
+     * The renderer may keep its own representation of it in the path backend cache.
+     * @param path
+     */
+    public void drawPath(RenderPath path);
+
+    /**
+     * Creates an offscreen layer, compatible with this renderer
+     * @param width in pixels
+     * @param height in pixels
+     * @return the layer
+     */
+    public RenderLayer createLayer(int width, int height);
+
+    /**
+     * Draws a layer created by this renderer
+     * @param layer
+     * @param x of the left side
+     * @param y of the top side
+     */
+    public void drawLayer(RenderLayer layer, float x, float y);
+
+    /**
+     * @param text, can be a reused StringBuilder, so no String is created per frame
+     * @param x
+     * @param y of the baseline
+     */
+    public void drawText(CharSequence text, float x, float y);
+}
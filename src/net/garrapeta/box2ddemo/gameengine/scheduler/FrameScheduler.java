@@ -0,0 +1,116 @@
+package net.garrapeta.box2ddemo.gameengine.scheduler;
+
+/**
+ * Paces the frames of the game loop.
+ * 
+ * Every frame has a deadline. The deadlines are computed from the previous one,
+ * not from the moment the frame finished, so small delays do not accumulate
+ * (drift) over time. All the times are in nanoseconds, taken from System.nanoTime().
+ * 
+ * Subclasses decide how the time until the deadline is waited.
+ */
+public abstract class FrameScheduler {
+
+    /** Length of a frame, in ns */
+    private long mFrameLength;
+
+    /** End of the current frame, in ns */
+    private long mDeadline;
+
+    /** Number of frames that ended after their deadline */
+    private int mMissedDeadlines = 0;
+
+    /**
+     * Constructor
+     * @param frameLength, in ns
+     */
+    public FrameScheduler(long frameLength) {
+        setFrameLength(frameLength);
+    }
+
+    /**
+     * Sets the length of a frame.
+     * @param frameLength, in ns
+     */
+    public void setFrameLength(long frameLength) {
+        if (frameLength <= 0) {
+            throw new IllegalArgumentException("Frame length must be positive: " + frameLength);
+        }
+        mFrameLength = frameLength;
+    }
+
+    /**
+     * @return the length of a frame, in ns
+     */
+    public long getFrameLength() {
+        return mFrameLength;
+    }
+
+    /**
+     * Starts a new sequence of frames, that begins now.
+     * To be called when the loop starts or is resumed.
+     */
+    public void start() {
+        mDeadline = alignDeadline(System.nanoTime() + mFrameLength);
+    }
+
+    /**
+     * Blocks until the deadline of the current frame, and moves to the next one.
+     * If the deadline has already passed it is counted as missed and the following
+     * deadlines start from now; we do not try to catch up with shorter frames.
+     */
+    public final void waitForNextFrame() {
+        long now = System.nanoTime();
+        if (now > mDeadline) {
+            mMissedDeadlines++;
+            mDeadline = alignDeadline(now + mFrameLength);
+        } else {
+            waitUntil(mDeadline);
+            mDeadline = alignDeadline(mDeadline + mFrameLength);
+        }
+    }
+
+    /**
+     * @return the number of frames that missed their deadline
+     */
+    public int getMissedDeadlines() {
+        return mMissedDeadlines;
+    }
+
+    /**
+     * Resets the count of missed deadlines
+     */
+    public void resetMissedDeadlines() {
+        mMissedDeadlines = 0;
+    }
+
+    /**
+     * Gives the scheduler the chance to move a deadline.
+     * By default the deadline is not changed.
+     * @param deadline, in ns
+     * @return the deadline to use, in ns
+     */
+    protected long alignDeadline(long deadline) {
+        return deadline;
+    }
+
+    /**
+     * Blocks the calling thread until the passed time.
+     * @param deadline, in ns
+     */
+    protected abstract void waitUntil(long deadline);
+
+    /**
+     * Sleeps the passed time, ignoring interruptions.
+     * @param nanos
+     */
+    protected static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1000000, (int) (nanos % 1000000));
+        } catch (InterruptedException ie) {
+        }
+    }
+}
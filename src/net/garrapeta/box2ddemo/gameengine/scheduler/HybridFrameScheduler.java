@@ -0,0 +1,44 @@
+package net.garrapeta.box2ddemo.gameengine.scheduler;
+
+/**
+ * Scheduler that sleeps until shortly before the end of the frame, and spins
+ * (yielding the CPU) the remaining time.
+ * This is much more precise than just sleeping, at the cost of some CPU time.
+ */
+public class HybridFrameScheduler extends FrameScheduler {
+
+    /** Default time spun before the deadline, in ns */
+    public static final long DEFAULT_SPIN_TIME = 2000000;
+
+    /** Time spun before the deadline, in ns */
+    private long mSpinTime;
+
+    /**
+     * Constructor
+     * @param frameLength, in ns
+     */
+    public HybridFrameScheduler(long frameLength) {
+        this(frameLength, DEFAULT_SPIN_TIME);
+    }
+
+    /**
+     * Constructor
+     * @param frameLength, in ns
+     * @param spinTime, time spun before the deadline, in ns
+     */
+    public HybridFrameScheduler(long frameLength, long spinTime) {
+        super(frameLength);
+        if (spinTime < 0) {
+            throw new IllegalArgumentException("Spin time cannot be negative: " + spinTime);
+        }
+        mSpinTime = spinTime;
+    }
+
+    @Override
+    protected void waitUntil(long deadline) {
+        sleep(deadline - mSpinTime - System.nanoTime());
+        while (System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.garrapeta.box2ddemo.gameengine.scheduler;
+
+/**
+ * Scheduler that just sleeps until the end of the frame.
+ * Cheapest in CPU, but the precision depends on how late the OS wakes the thread up.
+ */
+public class SleepFrameScheduler extends FrameScheduler {
+
+    /**
+     * Constructor
+     * @param frameLength, in ns
+     */
+    public SleepFrameScheduler(long frameLength) {
+        super(frameLength);
+    }
+
+    @Override
+    protected void waitUntil(long deadline) {
+        sleep(deadline - System.nanoTime());
+    }
+}
@@ -0,0 +1,59 @@
+package net.garrapeta.box2ddemo.gameengine.scheduler;
+
+/**
+ * Scheduler that makes the frames end on the refresh grid of the display.
+ * 
+ * The frame length is rounded up to a whole number of refresh periods, and every
+ * deadline is moved to the next refresh of the display. So a frame that is a bit
+ * late waits for the next refresh instead of being shown in the middle of one.
+ * 
+ * The grid is estimated from the refresh rate of the display (Display.getRefreshRate()),
+ * taking the moment the scheduler is created as origin. There is no vsync callback in
+ * the API levels we support, so the phase is not locked to the real vsync signal.
+ */
+public class VsyncFrameScheduler extends HybridFrameScheduler {
+
+    /** Period of the display refresh, in ns */
+    private long mVsyncPeriod;
+
+    /** Origin of the refresh grid, in ns */
+    private long mVsyncOrigin;
+
+    /**
+     * Constructor
+     * @param frameLength, in ns. It is rounded up to a multiple of the refresh period
+     * @param refreshRate of the display, in Hz
+     */
+    public VsyncFrameScheduler(long frameLength, float refreshRate) {
+        super(frameLength);
+        if (refreshRate <= 0) {
+            throw new IllegalArgumentException("Refresh rate must be positive: " + refreshRate);
+        }
+        mVsyncPeriod = (long) (1000000000L / refreshRate);
+        mVsyncOrigin = System.nanoTime();
+        setFrameLength(frameLength);
+    }
+
+    @Override
+    public void setFrameLength(long frameLength) {
+        if (mVsyncPeriod > 0) {
+            long periods = Math.max(1, (frameLength + mVsyncPeriod - 1) / mVsyncPeriod);
+            frameLength = periods * mVsyncPeriod;
+        }
+        super.setFrameLength(frameLength);
+    }
+
+    /**
+     * @return the period of the display refresh, in ns
+     */
+    public long getVsyncPeriod() {
+        return mVsyncPeriod;
+    }
+
+    @Override
+    protected long alignDeadline(long deadline) {
+        long sinceOrigin = deadline - mVsyncOrigin;
+        long periods = (sinceOrigin + mVsyncPeriod - 1) / mVsyncPeriod;
+        return mVsyncOrigin + periods * mVsyncPeriod;
+    }
+}
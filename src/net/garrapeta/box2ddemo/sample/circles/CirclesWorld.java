@@ -1,10 +1,11 @@
 package net.garrapeta.box2ddemo.sample.circles;
 
 
-import net.garrapeta.box2ddemo.gameengine.Actor;
-import net.garrapeta.box2ddemo.gameengine.GameMessage;
+import net.garrapeta.box2ddemo.gameengine.ActorPool;
+import net.garrapeta.box2ddemo.gameengine.GameMessagePool;
 import net.garrapeta.box2ddemo.gameengine.GameView;
 import net.garrapeta.box2ddemo.gameengine.GameWorld;
+import net.garrapeta.box2ddemo.gameengine.PooledGameMessage;
 import net.garrapeta.box2ddemo.gameengine.PointsConversionUtils;
 import net.garrapeta.box2ddemo.gameengine.actor.SimpleCircumferenceActor;
 import net.garrapeta.box2ddemo.gameengine.actor.SimpleLoopActor;
@@ -29,11 +30,47 @@ public class CirclesWorld extends GameWorld implements OnTouchListener, SensorEv
     // TODO: unregister in onPause, resume in onResume...
     private SensorManager mSensorManager;
 
+    /** Weight of each orientation sample in the gravity, to smooth the sensor noise */
+    private static final float GRAVITY_FILTER = 0.5f;
+
+    private static final float CIRCLE_RADIUS = 0.5f;
+
+    /** Maximum number of circles in the world. Beyond it the oldest one is recycled */
+    private static final int MAX_CIRCLES = 200;
+
+    /** Distance out of the walls beyond which the circles that escape are removed */
+    private static final float RECLAIM_MARGIN = 2;
+
+    /** Pool of touch messages, so touching does not allocate */
+    private final GameMessagePool<TouchMessage> mTouchMessagePool = new GameMessagePool<TouchMessage>() {
+        @Override
+        protected TouchMessage newObject() {
+            return new TouchMessage();
+        }
+    };
+
+    /** Pool of circles, so touching around does not create bodies all the time */
+    private final ActorPool<SimpleCircumferenceActor> mCirclePool = new ActorPool<SimpleCircumferenceActor>() {
+        @Override
+        protected SimpleCircumferenceActor newActor() {
+            return new SimpleCircumferenceActor(CirclesWorld.this, Vector2.Zero, true, CIRCLE_RADIUS);
+        }
+    };
+
+    /** Circles created, oldest first from mOldestCircle, and their generation when created */
+    private final SimpleCircumferenceActor[] mCircles = new SimpleCircumferenceActor[MAX_CIRCLES];
+    private final int[] mCircleGenerations = new int[MAX_CIRCLES];
+    private int mOldestCircle = 0;
+
+    /** World position of the last touch, reused in the game loop */
+    private final Vector2 mTouchWorldPos = new Vector2();
+
     /**
      * Constructor
      */
     public CirclesWorld(Activity activity, GameView gameView) {
         super(gameView);
+        setGravityFilter(GRAVITY_FILTER);
         gameView.setOnTouchListener(this);
         mSensorManager = (SensorManager) activity.getSystemService(Activity.SENSOR_SERVICE);
         mSensorManager.registerListener(this, mSensorManager.getDefaultSensor(Sensor.TYPE_ORIENTATION), SensorManager.SENSOR_DELAY_GAME);
@@ -60,35 +97,44 @@ public class CirclesWorld extends GameWorld implements OnTouchListener, SensorEv
                 new Vector2(m, m)
             };
         addActor(new SimpleLoopActor(this, new Vector2(0,0), false, vertex));
+
+        // circles that tunnel through the walls are removed
+        setReclaimBounds(-RECLAIM_MARGIN, -RECLAIM_MARGIN, worldWidth + RECLAIM_MARGIN, worldHeight + RECLAIM_MARGIN);
     }
 
     @Override
     public boolean onTouch(View v, MotionEvent event) {
-        final int action = event.getAction();
-        final float x = event.getX();
-        final float y = event.getY();
-
-        post(new GameMessage() {
-            @Override
-            public void process(GameWorld world) {
-                if (action == MotionEvent.ACTION_DOWN) {
-                    createCircleActor(x, y);
-                }           
-            }});
+        // Only touching down creates circles, so the rest of the events are not posted
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            TouchMessage message = mTouchMessagePool.obtain();
+            message.mX = event.getX();
+            message.mY = event.getY();
+            post(message);
+        }
         
         return true;
     }
 
     private void createCircleActor(float screenX, float screenY) {
-        Vector2 worldPos = PointsConversionUtils.getInstance().screenToWorld(screenX, screenY);
-        Actor actor = new SimpleCircumferenceActor(this, worldPos, true, 0.5f);
-        addActor(actor);
+        // The circles inside the walls never leave, so the oldest one goes back to the pool.
+        // Unless it has already been removed, and maybe spawned again
+        SimpleCircumferenceActor oldest = mCircles[mOldestCircle];
+        if (oldest != null && oldest.getGeneration() == mCircleGenerations[mOldestCircle]) {
+            removeActor(oldest);
+        }
+
+        Vector2 worldPos = PointsConversionUtils.getInstance().screenToWorld(screenX, screenY, mTouchWorldPos);
+        SimpleCircumferenceActor circle = spawnActor(mCirclePool, worldPos.x, worldPos.y, 0);
+        mCircles[mOldestCircle] = circle;
+        mCircleGenerations[mOldestCircle] = circle.getGeneration();
+        mOldestCircle = (mOldestCircle + 1) % MAX_CIRCLES;
     }
 
     @Override
     public void onSensorChanged(SensorEvent event) {
         if (event.sensor.getType() == Sensor.TYPE_ORIENTATION) {
-            this.setGravity(- event.values[2], event.values[1]);
+            // Applied by the game loop once per frame, out of the physical step
+            filterGravity(- event.values[2], event.values[1]);
         }
     }
 
@@ -96,4 +142,24 @@ public class CirclesWorld extends GameWorld implements OnTouchListener, SensorEv
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
     }
 
+    /**
+     * Message with a touch down, to be processed in the game loop
+     */
+    private class TouchMessage extends PooledGameMessage {
+
+        private float mX;
+        private float mY;
+
+        @Override
+        public void process(GameWorld world) {
+            createCircleActor(mX, mY);
+        }
+
+        @Override
+        public void reset() {
+            mX = 0;
+            mY = 0;
+        }
+    }
+
 }